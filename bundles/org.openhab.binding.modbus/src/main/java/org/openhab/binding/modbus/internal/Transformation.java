@@ -15,7 +15,9 @@ package org.openhab.binding.modbus.internal;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,6 +37,8 @@ import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +53,26 @@ import org.slf4j.LoggerFactory;
 @NonNullByDefault
 public class Transformation {
 
+    /**
+     * Cache of transformation results, evicting the least recently used entries
+     */
+    private static class ResultCache extends LinkedHashMap<String, String> {
+
+        private static final long serialVersionUID = 4296125462137316823L;
+
+        private final int maxSize;
+
+        ResultCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, String> eldest) {
+            return size() > maxSize;
+        }
+    }
+
     public static final String TRANSFORM_DEFAULT = "default";
     public static final Transformation IDENTITY_TRANSFORMATION = new Transformation(TRANSFORM_DEFAULT, null, null);
 
@@ -80,6 +104,15 @@ public class Transformation {
     @Nullable
     private final String transformationServiceParam;
 
+    private final TransformationMetrics metrics = new TransformationMetrics();
+    /**
+     * Context the transformation was compiled with, see {@link #compile(BundleContext, int)}
+     */
+    private volatile @Nullable BundleContext compiledContext;
+    private volatile @Nullable ServiceListener serviceListener;
+    private volatile @Nullable TransformationService cachedService;
+    private volatile @Nullable ResultCache resultCache;
+
     /**
      *
      * @param transformation either FUN(VAL) (standard transformation syntax), default (identity transformation
@@ -126,22 +159,109 @@ public class Transformation {
         this.transformationServiceParam = transformationServiceParam;
     }
 
+    /**
+     * Prepare the transformation for repeated use with the given context
+     *
+     * The transformation service is resolved right away, and kept until the service changes. Without compiling, the
+     * service is looked up on every transformation.
+     *
+     * @param context bundle context used to resolve the transformation service
+     * @param resultCacheSize number of transformation results to cache. Use zero to disable caching, e.g. with
+     *            transformations whose result does not depend only on the input. Cached results are dropped only when
+     *            the transformation service changes, or the transformation is compiled again. Changes of the
+     *            transformation file that leave the service registration untouched are not noticed.
+     */
+    public void compile(BundleContext context, int resultCacheSize) {
+        String transformationServiceName = this.transformationServiceName;
+        if (transformationServiceName == null) {
+            return;
+        }
+        dispose();
+        ServiceListener serviceListener = event -> {
+            // Service registered, modified or unregistered. Resolve again on next transformation
+            cachedService = null;
+            ResultCache resultCache = this.resultCache;
+            if (resultCache != null) {
+                synchronized (resultCache) {
+                    resultCache.clear();
+                }
+            }
+        };
+        try {
+            context.addServiceListener(serviceListener, "(smarthome.transform=" + transformationServiceName + ")");
+        } catch (InvalidSyntaxException e) {
+            logger.warn(
+                    "Transformation service '{}' cannot be tracked, it will be looked up on every transformation: {}",
+                    transformationServiceName, e.getMessage());
+            return;
+        }
+        this.serviceListener = serviceListener;
+        this.resultCache = resultCacheSize > 0 ? new ResultCache(resultCacheSize) : null;
+        this.compiledContext = context;
+        this.cachedService = TransformationHelper.getTransformationService(context, transformationServiceName);
+    }
+
+    /**
+     * Release the resources reserved by {@link #compile(BundleContext, int)}
+     */
+    public void dispose() {
+        BundleContext context = compiledContext;
+        ServiceListener serviceListener = this.serviceListener;
+        if (context != null && serviceListener != null) {
+            try {
+                context.removeServiceListener(serviceListener);
+            } catch (IllegalStateException e) {
+                // bundle context no longer valid
+            }
+        }
+        this.compiledContext = null;
+        this.serviceListener = null;
+        this.cachedService = null;
+        this.resultCache = null;
+    }
+
+    /**
+     * Get metrics of the transformations using transformation service
+     *
+     * @return metrics
+     */
+    public TransformationMetrics getMetrics() {
+        return metrics;
+    }
+
     public String transform(BundleContext context, String value) {
         String transformedResponse;
         String transformationServiceName = this.transformationServiceName;
         String transformationServiceParam = this.transformationServiceParam;
 
         if (transformationServiceName != null) {
+            long start = System.nanoTime();
+            ResultCache resultCache = context == compiledContext ? this.resultCache : null;
+            if (resultCache != null) {
+                String cached;
+                synchronized (resultCache) {
+                    cached = resultCache.get(value);
+                }
+                if (cached != null) {
+                    metrics.recordTransformation(System.nanoTime() - start, true);
+                    return cached;
+                }
+            }
             try {
                 if (transformationServiceParam == null) {
                     throw new TransformationException(
                             "transformation service parameter is missing! Invalid transform?");
                 }
                 @Nullable
-                TransformationService transformationService = TransformationHelper.getTransformationService(context,
+                TransformationService transformationService = getTransformationService(context,
                         transformationServiceName);
                 if (transformationService != null) {
                     transformedResponse = transformationService.transform(transformationServiceParam, value);
+                    if (resultCache != null && transformedResponse != null) {
+                        synchronized (resultCache) {
+                            resultCache.put(value, transformedResponse);
+                        }
+                    }
                 } else {
                     transformedResponse = value;
                     logger.warn("couldn't transform response because transformationService of type '{}' is unavailable",
@@ -155,6 +275,7 @@ public class Transformation {
                 // transformation
                 transformedResponse = value;
             }
+            metrics.recordTransformation(System.nanoTime() - start, false);
         } else if (isIdentityTransform()) {
             // identity transformation
             transformedResponse = value;
@@ -166,6 +287,19 @@ public class Transformation {
         return transformedResponse == null ? "" : transformedResponse;
     }
 
+    private @Nullable TransformationService getTransformationService(BundleContext context,
+            String transformationServiceName) {
+        if (context != compiledContext) {
+            return TransformationHelper.getTransformationService(context, transformationServiceName);
+        }
+        TransformationService transformationService = cachedService;
+        if (transformationService == null) {
+            transformationService = TransformationHelper.getTransformationService(context, transformationServiceName);
+            cachedService = transformationService;
+        }
+        return transformationService;
+    }
+
     public boolean isIdentityTransform() {
         return TRANSFORM_DEFAULT.equalsIgnoreCase(this.transformation);
     }
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Metrics of a {@link Transformation} using a transformation service
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class TransformationMetrics {
+
+    private final AtomicLong transformations = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void recordTransformation(long nanos, boolean cacheHit) {
+        transformations.incrementAndGet();
+        if (cacheHit) {
+            cacheHits.incrementAndGet();
+        }
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get number of transformations, including the ones answered from the result cache
+     *
+     * @return number of transformations
+     */
+    public long getTransformations() {
+        return transformations.get();
+    }
+
+    /**
+     * Get number of transformations answered from the result cache
+     *
+     * @return number of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Get ratio of transformations answered from the result cache
+     *
+     * @return cache hit rate between 0 and 1
+     */
+    public double getCacheHitRate() {
+        long count = transformations.get();
+        return count == 0 ? 0 : (double) cacheHits.get() / count;
+    }
+
+    /**
+     * Get average latency of the transformations
+     *
+     * @return average latency in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long count = transformations.get();
+        return count == 0 ? 0 : toMillis(totalNanos.get()) / count;
+    }
+
+    /**
+     * Get maximum latency of the transformations
+     *
+     * @return maximum latency in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransformationMetrics(transformations=%d, cacheHitRate=%.2f, avgLatency=%.3fms, "
+                + "maxLatency=%.3fms)", getTransformations(), getCacheHitRate(), getAverageLatencyMillis(),
+                getMaxLatencyMillis());
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
+
+/**
+ * Policy deciding whether polled channel state is updated
+ *
+ * Channel is updated when
+ * - it has not been updated before, or
+ * - its state has changed more than the deadband since the last update, and at least the minimum interval has passed
+ * since the last update, or
+ * - unchanged values are refreshed and the refresh interval has passed since the last update
+ *
+ * Deadband applies only to numeric states. Other states are considered changed when they are not equal.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class UpdatePolicy {
+
+    public enum Decision {
+        /**
+         * Channel should be updated
+         */
+        UPDATE,
+        /**
+         * State has not changed (or is within the deadband), and refresh is not due
+         */
+        UNCHANGED,
+        /**
+         * State has changed but the channel was updated too recently. The change should be updated later.
+         */
+        RATE_LIMITED
+    }
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final long refreshIntervalMillis;
+    private final boolean onChangeOnly;
+    private final BigDecimal deadband;
+    private final boolean deadbandPercent;
+    private final long minIntervalMillis;
+
+    /**
+     * Construct new update policy
+     *
+     * @param refreshIntervalMillis interval to update unchanged values. Zero or negative value means that values are
+     *            updated on every poll
+     * @param onChangeOnly whether unchanged values are never updated. Overrides <code>refreshIntervalMillis</code>
+     * @param deadband minimum change of numeric value that is considered as a change. Zero means any change
+     * @param deadbandPercent whether deadband is percentage of the previous value, instead of absolute value
+     * @param minIntervalMillis minimum time between updates of changed values. Zero means no limit
+     */
+    public UpdatePolicy(long refreshIntervalMillis, boolean onChangeOnly, BigDecimal deadband, boolean deadbandPercent,
+            long minIntervalMillis) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.onChangeOnly = onChangeOnly;
+        this.deadband = deadband.abs();
+        this.deadbandPercent = deadbandPercent;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * Construct update policy from data thing configuration
+     *
+     * @param config data thing configuration
+     * @return update policy
+     * @throws ModbusConfigurationException when the deadband is not a number, or a percentage
+     */
+    public static UpdatePolicy fromConfiguration(ModbusDataConfiguration config) throws ModbusConfigurationException {
+        String deadbandConfig = StringUtils.trimToEmpty(config.getUpdateDeadband());
+        boolean percent = deadbandConfig.endsWith("%");
+        if (percent) {
+            deadbandConfig = deadbandConfig.substring(0, deadbandConfig.length() - 1).trim();
+        }
+        BigDecimal deadband = BigDecimal.ZERO;
+        if (!deadbandConfig.isEmpty()) {
+            try {
+                deadband = new BigDecimal(deadbandConfig);
+            } catch (NumberFormatException e) {
+                throw new ModbusConfigurationException(String.format(
+                        "updateDeadband '%s' is invalid. Use number (e.g. 0.5) or percentage (e.g. 2%%).",
+                        config.getUpdateDeadband()));
+            }
+        }
+        return new UpdatePolicy(config.getUpdateUnchangedValuesEveryMillis(), config.isUpdateOnChangeOnly(), deadband,
+                percent, config.getUpdateMinIntervalMillis());
+    }
+
+    /**
+     * Decide whether channel should be updated with new state
+     *
+     * @param now current time in milliseconds
+     * @param lastState last updated state, or null if channel has not been updated
+     * @param lastUpdatedMillis time of the last update in milliseconds
+     * @param state new state
+     * @return decision
+     */
+    public Decision decide(long now, @Nullable State lastState, long lastUpdatedMillis, State state) {
+        if (lastState == null || lastUpdatedMillis <= 0L) {
+            return Decision.UPDATE;
+        }
+        if (isChanged(lastState, state)) {
+            return minIntervalMillis > 0L && now - lastUpdatedMillis < minIntervalMillis ? Decision.RATE_LIMITED
+                    : Decision.UPDATE;
+        }
+        return isRefreshDue(now, lastUpdatedMillis) ? Decision.UPDATE : Decision.UNCHANGED;
+    }
+
+    /**
+     * Check whether unchanged value should be updated
+     *
+     * @param now current time in milliseconds
+     * @param lastUpdatedMillis time of the last update in milliseconds
+     * @return whether unchanged value should be updated
+     */
+    public boolean isRefreshDue(long now, long lastUpdatedMillis) {
+        if (onChangeOnly) {
+            return false;
+        }
+        return refreshIntervalMillis <= 0L || now - lastUpdatedMillis > refreshIntervalMillis;
+    }
+
+    private boolean isChanged(State lastState, State state) {
+        if (deadband.signum() == 0) {
+            return !lastState.equals(state);
+        }
+        BigDecimal lastValue = toBigDecimal(lastState);
+        BigDecimal value = toBigDecimal(state);
+        if (lastValue == null || value == null || !lastState.getClass().equals(state.getClass())) {
+            return !lastState.equals(state);
+        }
+        if (state instanceof QuantityType
+                && !((QuantityType<?>) lastState).getUnit().equals(((QuantityType<?>) state).getUnit())) {
+            return !lastState.equals(state);
+        }
+        BigDecimal threshold = deadbandPercent
+                ? lastValue.abs().multiply(deadband).divide(HUNDRED, MathContext.DECIMAL64)
+                : deadband;
+        return value.subtract(lastValue).abs().compareTo(threshold) > 0;
+    }
+
+    private static @Nullable BigDecimal toBigDecimal(State state) {
+        if (state instanceof DecimalType) {
+            return ((DecimalType) state).toBigDecimal();
+        } else if (state instanceof QuantityType) {
+            return ((QuantityType<?>) state).toBigDecimal();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "UpdatePolicy(refreshIntervalMillis=%d, onChangeOnly=%s, deadband=%s%s, minIntervalMillis=%d)",
+                refreshIntervalMillis, onChangeOnly, deadband, deadbandPercent ? "%" : "", minIntervalMillis);
+    }
+}
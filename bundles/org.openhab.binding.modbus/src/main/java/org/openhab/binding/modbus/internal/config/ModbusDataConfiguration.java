@@ -41,6 +41,11 @@ public class ModbusDataConfiguration {
     private boolean writeMultipleEvenWithSingleRegisterOrCoil;
     private int writeMaxTries = 3; // backwards compatibility and tests
     private long updateUnchangedValuesEveryMillis = 1000L;
+    private boolean updateOnChangeOnly;
+    @Nullable
+    private String updateDeadband;
+    private long updateMinIntervalMillis;
+    private int transformationCacheSize;
 
     public @Nullable String getReadStart() {
         return readStart;
@@ -121,4 +126,36 @@ public class ModbusDataConfiguration {
     public void setUpdateUnchangedValuesEveryMillis(long updateUnchangedValuesEveryMillis) {
         this.updateUnchangedValuesEveryMillis = updateUnchangedValuesEveryMillis;
     }
+
+    public boolean isUpdateOnChangeOnly() {
+        return updateOnChangeOnly;
+    }
+
+    public void setUpdateOnChangeOnly(boolean updateOnChangeOnly) {
+        this.updateOnChangeOnly = updateOnChangeOnly;
+    }
+
+    public @Nullable String getUpdateDeadband() {
+        return updateDeadband;
+    }
+
+    public void setUpdateDeadband(String updateDeadband) {
+        this.updateDeadband = updateDeadband;
+    }
+
+    public long getUpdateMinIntervalMillis() {
+        return updateMinIntervalMillis;
+    }
+
+    public void setUpdateMinIntervalMillis(long updateMinIntervalMillis) {
+        this.updateMinIntervalMillis = updateMinIntervalMillis;
+    }
+
+    public int getTransformationCacheSize() {
+        return transformationCacheSize;
+    }
+
+    public void setTransformationCacheSize(int transformationCacheSize) {
+        this.transformationCacheSize = transformationCacheSize;
+    }
 }
@@ -32,6 +32,7 @@ public class ModbusTcpConfiguration {
     private int connectMaxTries;
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
+    private int maxInFlightTransactions;
     private boolean enableDiscovery;
 
     public @Nullable String getHost() {
@@ -98,6 +99,14 @@ public class ModbusTcpConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getMaxInFlightTransactions() {
+        return maxInFlightTransactions;
+    }
+
+    public void setMaxInFlightTransactions(int maxInFlightTransactions) {
+        this.maxInFlightTransactions = maxInFlightTransactions;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
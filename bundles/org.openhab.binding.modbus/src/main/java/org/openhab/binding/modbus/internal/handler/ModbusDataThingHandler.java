@@ -59,6 +59,8 @@ import org.openhab.binding.modbus.handler.ModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
 import org.openhab.binding.modbus.internal.Transformation;
+import org.openhab.binding.modbus.internal.TransformationMetrics;
+import org.openhab.binding.modbus.internal.UpdatePolicy;
 import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
 import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
 import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
@@ -80,6 +82,7 @@ import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
 import org.openhab.io.transport.modbus.PollTask;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.json.WriteRequestJsonUtilities;
+import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,6 +123,7 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     }
     // data channels + 4 for read/write last error/success
     private static final int NUMER_OF_CHANNELS_HINT = CHANNEL_ID_TO_ACCEPTED_TYPES.size() + 4;
+    private static final UpdatePolicy DEFAULT_UPDATE_POLICY = new UpdatePolicy(0L, false, BigDecimal.ZERO, false, 0L);
 
     //
     // If you change the below default/initial values, please update the corresponding values in dispose()
@@ -134,7 +138,7 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile @Nullable Integer writeStart;
     private volatile int pollStart;
     private volatile int slaveId;
-    private volatile long updateUnchangedValuesEveryMillis;
+    private volatile UpdatePolicy updatePolicy = DEFAULT_UPDATE_POLICY;
     private volatile @Nullable ModbusSlaveEndpoint slaveEndpoint;
     private volatile @Nullable ModbusManager manager;
     private volatile @Nullable PollTask pollTask;
@@ -146,6 +150,15 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    /**
+     * Raw value of the last processed poll, see {@link #isUnchangedPoll(long)}. Guarded by this.
+     */
+    private long lastRawBits;
+    private boolean hasLastRawBits;
+    /**
+     * Whether some changes were not updated to channels due to update rate limit. Guarded by this.
+     */
+    private boolean pendingChanges;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -336,7 +349,6 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         try {
             logger.trace("initialize() of thing {} '{}' starting", thing.getUID(), thing.getLabel());
             config = getConfigAs(ModbusDataConfiguration.class);
-            updateUnchangedValuesEveryMillis = config.getUpdateUnchangedValuesEveryMillis();
             Bridge bridge = getBridge();
             if (bridge == null) {
                 logger.debug("Thing {} '{}' has no bridge", getThing().getUID(), getThing().getLabel());
@@ -378,6 +390,7 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             validateAndParseReadParameters();
             validateAndParseWriteParameters();
             validateMustReadOrWrite();
+            updatePolicy = UpdatePolicy.fromConfiguration(config);
 
             updateStatusIfChanged(ThingStatus.ONLINE);
         } catch (ModbusConfigurationException | EndpointNotInitializedException e) {
@@ -394,6 +407,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         config = null;
         readValueType = null;
         writeValueType = null;
+        disposeTransformation(readTransformation, "read");
+        disposeTransformation(writeTransformation, "write");
         readTransformation = null;
         writeTransformation = null;
         readIndex = Optional.empty();
@@ -414,6 +429,49 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        updatePolicy = DEFAULT_UPDATE_POLICY;
+        hasLastRawBits = false;
+        pendingChanges = false;
+    }
+
+    private void disposeTransformation(@Nullable Transformation transformation, String purpose) {
+        if (transformation == null) {
+            return;
+        }
+        if (transformation.hasTransformationService()) {
+            logger.debug("Thing {} {} transformation {}: {}", getThing().getUID(), purpose, transformation,
+                    transformation.getMetrics());
+        }
+        transformation.dispose();
+    }
+
+    /**
+     * Get metrics of the read transformation
+     *
+     * @return metrics, or null if the thing is not initialized
+     */
+    public @Nullable TransformationMetrics getReadTransformationMetrics() {
+        Transformation transformation = readTransformation;
+        return transformation == null ? null : transformation.getMetrics();
+    }
+
+    /**
+     * Get metrics of the write transformation
+     *
+     * @return metrics, or null if the thing is not initialized
+     */
+    public @Nullable TransformationMetrics getWriteTransformationMetrics() {
+        Transformation transformation = writeTransformation;
+        return transformation == null ? null : transformation.getMetrics();
+    }
+
+    @Override
+    public synchronized void channelLinked(ChannelUID channelUID) {
+        // Ensure that the newly linked channel is updated with next poll
+        channelLastUpdated.remove(channelUID);
+        channelLastState.remove(channelUID);
+        hasLastRawBits = false;
+        super.channelLinked(channelUID);
     }
 
     @Override
@@ -502,17 +560,28 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                 throw new ModbusConfigurationException(errmsg);
             }
         }
-        readTransformation = new Transformation(config.getReadTransform());
+        readTransformation = createTransformation(config.getReadTransform());
 
         validateReadIndex(pollTask);
     }
 
+    private Transformation createTransformation(@Nullable String transformationConfig) {
+        Transformation transformation = new Transformation(transformationConfig);
+        BundleContext context = bundleContext;
+        ModbusDataConfiguration config = this.config;
+        if (context != null && config != null) {
+            // Resolve transformation service once, instead of every transformation
+            transformation.compile(context, config.getTransformationCacheSize());
+        }
+        return transformation;
+    }
+
     private void validateAndParseWriteParameters() throws ModbusConfigurationException {
         boolean writeTypeMissing = StringUtils.isBlank(config.getWriteType());
         boolean writeStartMissing = StringUtils.isBlank(config.getWriteStart());
         boolean writeValueTypeMissing = StringUtils.isBlank(config.getWriteValueType());
         boolean writeTransformationMissing = StringUtils.isBlank(config.getWriteTransform());
-        writeTransformation = new Transformation(config.getWriteTransform());
+        writeTransformation = createTransformation(config.getWriteTransform());
 
         boolean writingCoil = WRITE_TYPE_COIL.equals(config.getWriteType());
         transformationOnlyInWrite = (writeTypeMissing && writeStartMissing && writeValueTypeMissing
@@ -675,8 +744,15 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
-        numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
-                .map(state -> (State) state).orElse(UnDefType.UNDEF);
+        long rawBits = ModbusBitUtilities.extractRawBitsFromRegisters(registers, extractIndex, readValueType);
+        if (isUnchangedPoll(rawBits)) {
+            logger.trace("Thing {} polled value unchanged, skipping channel updates. Registers {} for request {}",
+                    thing.getUID(), registers, request);
+            updateReadSuccess();
+            return;
+        }
+        numericState = ModbusBitUtilities.rawBitsToState(rawBits, readValueType).map(state -> (State) state)
+                .orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -693,6 +769,12 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (isUnchangedPoll(boolValue ? 1L : 0L)) {
+            logger.trace("Thing {} polled value unchanged, skipping channel updates. Bits {} for request {}",
+                    thing.getUID(), bits, request);
+            updateReadSuccess();
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -858,13 +940,51 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         return states;
     }
 
+    /**
+     * Check whether the polled raw value is the same as with the previous poll, and no channel needs to be updated.
+     * This allows skipping the transformations altogether with unchanged values.
+     *
+     * @param rawBits raw polled value
+     * @return whether channel updates can be skipped
+     */
+    private synchronized boolean isUnchangedPoll(long rawBits) {
+        boolean unchanged = hasLastRawBits && lastRawBits == rawBits && !pendingChanges
+                && !updatePolicy.isRefreshDue(System.currentTimeMillis(), getOldestChannelUpdateMillis());
+        lastRawBits = rawBits;
+        hasLastRawBits = true;
+        return unchanged;
+    }
+
+    private long getOldestChannelUpdateMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (long lastUpdated : channelLastUpdated.values()) {
+            oldest = Math.min(oldest, lastUpdated);
+        }
+        return oldest == Long.MAX_VALUE ? 0L : oldest;
+    }
+
+    private void updateReadSuccess() {
+        updateStatusIfChanged(ThingStatus.ONLINE);
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            tryUpdateState(lastReadSuccessUID, new DateTimeType());
+        }
+    }
+
     private void updateExpiredChannels(Map<ChannelUID, State> states) {
         synchronized (this) {
             updateStatusIfChanged(ThingStatus.ONLINE);
             long now = System.currentTimeMillis();
-            // Update channels that have not been updated in a while, or when their values has changed
-            states.forEach((uid, state) -> updateExpiredChannel(now, uid, state));
-            channelLastState = states;
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            pendingChanges = false;
+            // Update channels according to the update policy. Last read success is updated on every poll.
+            states.forEach((uid, state) -> {
+                if (uid.equals(lastReadSuccessUID)) {
+                    tryUpdateState(uid, state);
+                } else {
+                    updateExpiredChannel(now, uid, state);
+                }
+            });
         }
     }
 
@@ -872,11 +992,18 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         @Nullable
         State lastState = channelLastState.get(uid);
         long lastUpdatedMillis = channelLastUpdated.getOrDefault(uid, 0L);
-        long millisSinceLastUpdate = now - lastUpdatedMillis;
-        if (lastUpdatedMillis <= 0L || lastState == null || updateUnchangedValuesEveryMillis <= 0L
-                || millisSinceLastUpdate > updateUnchangedValuesEveryMillis || !lastState.equals(state)) {
-            tryUpdateState(uid, state);
-            channelLastUpdated.put(uid, now);
+        switch (updatePolicy.decide(now, lastState, lastUpdatedMillis, state)) {
+            case UPDATE:
+                tryUpdateState(uid, state);
+                channelLastUpdated.put(uid, now);
+                channelLastState.put(uid, state);
+                break;
+            case RATE_LIMITED:
+                // Updated with later poll
+                pendingChanges = true;
+                break;
+            default:
+                break;
         }
     }
 
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TransformationTest {
+
+    @Mock
+    private BundleContext bundleContext;
+
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+
+    private void mockTransformationService() throws InvalidSyntaxException {
+        TransformationService service = (function, source) -> {
+            serviceCalls.incrementAndGet();
+            return function + source;
+        };
+        doReturn(Arrays.asList(new Object[] { null })).when(bundleContext)
+                .getServiceReferences(TransformationService.class, "(smarthome.transform=PREFIX)");
+        doReturn(service).when(bundleContext).getService(any());
+    }
+
+    @Test
+    public void testCompiledTransformationResolvesServiceOnce() throws InvalidSyntaxException {
+        mockTransformationService();
+        Transformation transformation = new Transformation("PREFIX(x)");
+        transformation.compile(bundleContext, 0);
+
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("x1")));
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("x1")));
+
+        verify(bundleContext, times(1)).getServiceReferences(TransformationService.class,
+                "(smarthome.transform=PREFIX)");
+        assertThat(serviceCalls.get(), is(equalTo(2)));
+        assertThat(transformation.getMetrics().getTransformations(), is(equalTo(2L)));
+        assertThat(transformation.getMetrics().getCacheHits(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testServiceIsResolvedAgainAfterServiceChange() throws InvalidSyntaxException {
+        mockTransformationService();
+        Transformation transformation = new Transformation("PREFIX(x)");
+        transformation.compile(bundleContext, 0);
+        ArgumentCaptor<ServiceListener> listener = ArgumentCaptor.forClass(ServiceListener.class);
+        verify(bundleContext).addServiceListener(listener.capture(), eq("(smarthome.transform=PREFIX)"));
+
+        listener.getValue().serviceChanged(mock(ServiceEvent.class));
+        transformation.transform(bundleContext, "1");
+
+        verify(bundleContext, times(2)).getServiceReferences(TransformationService.class,
+                "(smarthome.transform=PREFIX)");
+
+        transformation.dispose();
+        verify(bundleContext).removeServiceListener(listener.getValue());
+    }
+
+    @Test
+    public void testResultCache() throws InvalidSyntaxException {
+        mockTransformationService();
+        Transformation transformation = new Transformation("PREFIX(x)");
+        transformation.compile(bundleContext, 2);
+
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("x1")));
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("x1")));
+        assertThat(transformation.transform(bundleContext, "2"), is(equalTo("x2")));
+        assertThat(transformation.transform(bundleContext, "3"), is(equalTo("x3")));
+        // "1" evicted as least recently used
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("x1")));
+
+        assertThat(serviceCalls.get(), is(equalTo(4)));
+        assertThat(transformation.getMetrics().getCacheHits(), is(equalTo(1L)));
+        assertThat(transformation.getMetrics().getCacheHitRate(), is(equalTo(0.2)));
+    }
+
+    @Test
+    public void testIdentityTransformationIsNotCompiled() {
+        Transformation transformation = new Transformation("default");
+        transformation.compile(bundleContext, 10);
+
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("1")));
+        verifyZeroInteractions(bundleContext);
+    }
+}
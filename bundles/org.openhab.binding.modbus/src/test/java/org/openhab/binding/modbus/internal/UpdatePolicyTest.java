@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.junit.Test;
+import org.openhab.binding.modbus.internal.UpdatePolicy.Decision;
+import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
+
+public class UpdatePolicyTest {
+
+    private static UpdatePolicy policy(String deadband, long minIntervalMillis) throws ModbusConfigurationException {
+        ModbusDataConfiguration config = new ModbusDataConfiguration();
+        config.setUpdateDeadband(deadband);
+        config.setUpdateMinIntervalMillis(minIntervalMillis);
+        return UpdatePolicy.fromConfiguration(config);
+    }
+
+    @Test
+    public void testFirstUpdate() {
+        UpdatePolicy policy = new UpdatePolicy(1000, true, BigDecimal.ONE, false, 1000);
+        assertThat(policy.decide(5000, null, 0, new DecimalType(1)), is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test
+    public void testUnchangedValueIsRefreshed() {
+        UpdatePolicy policy = new UpdatePolicy(1000, false, BigDecimal.ZERO, false, 0);
+        assertThat(policy.decide(1500, new DecimalType(1), 1000, new DecimalType(1)),
+                is(equalTo(Decision.UNCHANGED)));
+        assertThat(policy.decide(2001, new DecimalType(1), 1000, new DecimalType(1)), is(equalTo(Decision.UPDATE)));
+        assertThat(policy.decide(1500, new DecimalType(1), 1000, new DecimalType(2)), is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test
+    public void testZeroRefreshIntervalUpdatesEveryTime() {
+        UpdatePolicy policy = new UpdatePolicy(0, false, BigDecimal.ZERO, false, 0);
+        assertThat(policy.decide(1001, new DecimalType(1), 1000, new DecimalType(1)), is(equalTo(Decision.UPDATE)));
+        assertThat(policy.isRefreshDue(1001, 1000), is(true));
+    }
+
+    @Test
+    public void testOnChangeOnly() {
+        UpdatePolicy policy = new UpdatePolicy(0, true, BigDecimal.ZERO, false, 0);
+        assertThat(policy.decide(100000, OnOffType.ON, 1000, OnOffType.ON), is(equalTo(Decision.UNCHANGED)));
+        assertThat(policy.decide(100000, OnOffType.ON, 1000, OnOffType.OFF), is(equalTo(Decision.UPDATE)));
+        assertThat(policy.isRefreshDue(100000, 1000), is(false));
+    }
+
+    @Test
+    public void testAbsoluteDeadband() throws ModbusConfigurationException {
+        UpdatePolicy policy = policy("0.5", 0);
+        assertThat(policy.decide(1001, new DecimalType(10), 1000, new DecimalType("10.5")),
+                is(equalTo(Decision.UNCHANGED)));
+        assertThat(policy.decide(1001, new DecimalType(10), 1000, new DecimalType("9.4")),
+                is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test
+    public void testPercentDeadband() throws ModbusConfigurationException {
+        UpdatePolicy policy = policy("2%", 0);
+        assertThat(policy.decide(1001, new DecimalType(200), 1000, new DecimalType(204)),
+                is(equalTo(Decision.UNCHANGED)));
+        assertThat(policy.decide(1001, new DecimalType(200), 1000, new DecimalType("204.1")),
+                is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test
+    public void testDeadbandWithNonNumericStates() throws ModbusConfigurationException {
+        UpdatePolicy policy = policy("5", 0);
+        assertThat(policy.decide(1001, new StringType("a"), 1000, new StringType("a")),
+                is(equalTo(Decision.UNCHANGED)));
+        assertThat(policy.decide(1001, new StringType("a"), 1000, new StringType("b")),
+                is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test
+    public void testMinInterval() throws ModbusConfigurationException {
+        UpdatePolicy policy = policy("", 500);
+        assertThat(policy.decide(1200, new DecimalType(1), 1000, new DecimalType(2)),
+                is(equalTo(Decision.RATE_LIMITED)));
+        assertThat(policy.decide(1500, new DecimalType(1), 1000, new DecimalType(2)), is(equalTo(Decision.UPDATE)));
+    }
+
+    @Test(expected = ModbusConfigurationException.class)
+    public void testInvalidDeadband() throws ModbusConfigurationException {
+        policy("foo", 0);
+    }
+}
@@ -12,7 +12,9 @@
  */
 package org.openhab.binding.mqtt.generic;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -58,6 +60,9 @@ import org.slf4j.LoggerFactory;
  * While setting up your {@link ChannelState} you would set the callback to your thing handler,
  * because this base class implements {@link ChannelStateUpdateListener}.
  *
+ * <p>
+ * State updates of channels are limited according to their {@link ChannelConfig}, see {@link ChannelUpdateFilter}.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -68,6 +73,8 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
 
     protected @Nullable MqttBrokerConnection connection;
 
+    private final Map<ChannelUID, ChannelUpdateFilter> updateFilters = new ConcurrentHashMap<>();
+
     public AbstractMQTTThingHandler(Thing thing, int subscribeTimeout) {
         super(thing);
         this.subscribeTimeout = subscribeTimeout;
@@ -129,12 +136,14 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
     public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
         if (bridgeStatusInfo.getStatus() == ThingStatus.OFFLINE) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
+            resetUpdateFilters();
             stop();
             connection = null;
             return;
         }
         if (bridgeStatusInfo.getStatus() != ThingStatus.ONLINE) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+            resetUpdateFilters();
             stop();
             return;
         }
@@ -199,6 +208,7 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
 
     @Override
     public void handleRemoval() {
+        resetUpdateFilters();
         stop();
         super.handleRemoval();
     }
@@ -209,12 +219,54 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
         if (connection != null) {
             connection.unsubscribeAll();
         }
+        resetUpdateFilters();
+        updateFilters.clear();
         super.dispose();
     }
 
     @Override
     public void updateChannelState(ChannelUID channelUID, State value) {
-        super.updateState(channelUID, value);
+        final ChannelUpdateFilter filter = getUpdateFilter(channelUID);
+        if (filter != null) {
+            filter.update(value);
+        } else {
+            super.updateState(channelUID, value);
+        }
+    }
+
+    private @Nullable ChannelUpdateFilter getUpdateFilter(ChannelUID channelUID) {
+        ChannelUpdateFilter filter = updateFilters.get(channelUID);
+        if (filter == null) {
+            final ChannelState data = getChannelState(channelUID);
+            if (data == null || !ChannelUpdateFilter.isRequired(data.config)) {
+                return null;
+            }
+            filter = updateFilters.computeIfAbsent(channelUID, uid -> new ChannelUpdateFilter(data.config, scheduler,
+                    state -> super.updateState(uid, state)));
+        }
+        return filter;
+    }
+
+    private void resetUpdateFilters() {
+        updateFilters.forEach((channelUID, filter) -> {
+            filter.reset();
+            logger.debug("Channel {}: {} state updates forwarded, {} suppressed", channelUID, filter.getForwarded(),
+                    filter.getSuppressed());
+        });
+    }
+
+    /**
+     * Returns the number of state updates forwarded to the framework by channels with limited updates.
+     */
+    public long getForwardedUpdates() {
+        return updateFilters.values().stream().mapToLong(ChannelUpdateFilter::getForwarded).sum();
+    }
+
+    /**
+     * Returns the number of state updates suppressed by channels with limited updates.
+     */
+    public long getSuppressedUpdates() {
+        return updateFilters.values().stream().mapToLong(ChannelUpdateFilter::getSuppressed).sum();
     }
 
     @Override
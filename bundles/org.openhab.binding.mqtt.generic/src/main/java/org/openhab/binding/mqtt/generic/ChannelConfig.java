@@ -56,4 +56,11 @@ public class ChannelConfig {
     public @Nullable String stop;
 
     public int onBrightness = 10;
+
+    /** Minimum time in milliseconds between two state updates. 0 forwards every state update. */
+    public int minInterval = 0;
+    /** A numeric state update differing less than this from the last forwarded state is not forwarded. */
+    public @Nullable BigDecimal deadband;
+    /** If true, the latest state update suppressed by {@link #minInterval} is forwarded once it has passed. */
+    public boolean coalesce = false;
 }
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.mqtt.generic;
 
+import java.math.BigDecimal;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -68,4 +70,19 @@ public class ChannelConfigBuilder {
         config.trigger = trigger;
         return this;
     }
+
+    public ChannelConfigBuilder withMinInterval(int minInterval) {
+        config.minInterval = minInterval;
+        return this;
+    }
+
+    public ChannelConfigBuilder withDeadband(@Nullable BigDecimal deadband) {
+        config.deadband = deadband;
+        return this;
+    }
+
+    public ChannelConfigBuilder withCoalesce(boolean coalesce) {
+        config.coalesce = coalesce;
+        return this;
+    }
 }
@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.generic;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Formatter;
 import java.util.IllegalFormatException;
 import java.util.List;
@@ -25,8 +26,10 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.UpDownType;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
@@ -62,6 +65,10 @@ public class ChannelState implements MqttMessageSubscriber {
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
 
+    // Last payload that set the value to an absolute state, and that state
+    private byte @Nullable [] lastPayload;
+    private @Nullable State lastState;
+
     /**
      * Creates a new channel state.
      *
@@ -92,6 +99,7 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public void addTransformation(ChannelStateTransformation transformation) {
         transformationsIn.add(transformation);
+        lastPayload = null;
     }
 
     /**
@@ -110,6 +118,7 @@ public class ChannelState implements MqttMessageSubscriber {
     public void clearTransformations() {
         transformationsIn.clear();
         transformationsOut.clear();
+        lastPayload = null;
     }
 
     /**
@@ -134,6 +143,12 @@ public class ChannelState implements MqttMessageSubscriber {
     /**
      * Incoming message from the MqttBrokerConnection
      *
+     * <p>
+     * A payload equal to the last one, which set the value to a state that is still current, is not parsed again.
+     * The listener is informed about the current state right away. Without transformations, the value may parse the
+     * payload without decoding it, see {@link Value#parsePayload(byte[])}.
+     * </p>
+     *
      * @param topic The topic. Is the same as the field stateTopic.
      * @param payload The byte payload. Must be UTF8 encoded text or binary data.
      */
@@ -145,32 +160,49 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
+        if (!config.trigger && isDuplicate(payload)) {
+            logger.trace("Payload for channel {} unchanged, state still {}", channelUID, lastState);
+            notifyState(channelStateUpdateListener);
+            receivedOrTimeout();
+            return;
+        }
+        lastPayload = null;
+
         if (cachedValue.isBinary()) {
             cachedValue.update(payload);
+            rememberPayload(payload);
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
             receivedOrTimeout();
             return;
         }
 
-        // String value: Apply transformations
-        String strvalue = new String(payload, StandardCharsets.UTF_8);
-        for (ChannelStateTransformation t : transformationsIn) {
-            strvalue = t.processValue(strvalue);
+        // Without transformations the value might parse the payload right away
+        Command command = null;
+        if (!config.trigger && transformationsIn.isEmpty()) {
+            command = cachedValue.parsePayload(payload);
         }
 
-        // Is trigger?: Special handling
-        if (config.trigger) {
-            channelStateUpdateListener.triggerChannel(channelUID, strvalue);
-            receivedOrTimeout();
-            return;
-        }
-
-        Command command = TypeParser.parseCommand(cachedValue.getSupportedCommandTypes(), strvalue);
         if (command == null) {
-            logger.warn("Incoming payload '{}' not supported by type '{}'", strvalue,
-                    cachedValue.getClass().getSimpleName());
-            receivedOrTimeout();
-            return;
+            // String value: Apply transformations
+            String strvalue = new String(payload, StandardCharsets.UTF_8);
+            for (ChannelStateTransformation t : transformationsIn) {
+                strvalue = t.processValue(strvalue);
+            }
+
+            // Is trigger?: Special handling
+            if (config.trigger) {
+                channelStateUpdateListener.triggerChannel(channelUID, strvalue);
+                receivedOrTimeout();
+                return;
+            }
+
+            command = TypeParser.parseCommand(cachedValue.getSupportedCommandTypes(), strvalue);
+            if (command == null) {
+                logger.warn("Incoming payload '{}' not supported by type '{}'", strvalue,
+                        cachedValue.getClass().getSimpleName());
+                receivedOrTimeout();
+                return;
+            }
         }
 
         Command postOnlyCommand = cachedValue.isPostOnly(command);
@@ -184,18 +216,39 @@ public class ChannelState implements MqttMessageSubscriber {
         try {
             cachedValue.update(command);
         } catch (IllegalArgumentException | IllegalStateException e) {
-            logger.warn("Command '{}' not supported by type '{}': {}", strvalue, cachedValue.getClass().getSimpleName(),
+            logger.warn("Command '{}' not supported by type '{}': {}", command, cachedValue.getClass().getSimpleName(),
                     e.getMessage());
             receivedOrTimeout();
             return;
         }
 
-        if (config.postCommand) {
+        // Relative commands like INCREASE change the state every time they are received
+        if (command instanceof State && !(command instanceof UpDownType)) {
+            rememberPayload(payload);
+        }
+
+        notifyState(channelStateUpdateListener);
+        receivedOrTimeout();
+    }
+
+    private boolean isDuplicate(byte[] payload) {
+        final byte[] lastPayload = this.lastPayload;
+        // The state might have been changed by a published command in the meantime
+        return lastPayload != null && cachedValue.getChannelState() == lastState
+                && Arrays.equals(lastPayload, payload);
+    }
+
+    private void rememberPayload(byte[] payload) {
+        lastPayload = payload.clone();
+        lastState = cachedValue.getChannelState();
+    }
+
+    private void notifyState(ChannelStateUpdateListener channelStateUpdateListener) {
+        if (config.postCommand && !cachedValue.isBinary()) {
             channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
         } else {
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
         }
-        receivedOrTimeout();
     }
 
     /**
@@ -246,6 +299,7 @@ public class ChannelState implements MqttMessageSubscriber {
         this.connection = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
+        lastPayload = null;
         cachedValue.resetState();
     }
 
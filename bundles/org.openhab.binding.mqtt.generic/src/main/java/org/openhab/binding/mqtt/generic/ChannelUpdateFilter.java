@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * Limits the state updates of a channel, according to {@link ChannelConfig#minInterval},
+ * {@link ChannelConfig#deadband} and {@link ChannelConfig#coalesce}.
+ *
+ * <p>
+ * A numeric state differing less than the deadband from the last forwarded state is suppressed. A state received
+ * within the minimum interval after the last forwarded state is suppressed as well, or, if coalescing is enabled,
+ * kept until the interval has passed. A newer state always replaces the kept state, and only the latest kept state is
+ * forwarded then, if it is outside the deadband.
+ *
+ * <p>
+ * States are forwarded while holding the lock of the filter, so a scheduled state and a newly received state cannot
+ * overtake each other. The forwarder must not block and must not call back into the filter.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ChannelUpdateFilter {
+    private final long minIntervalNanos;
+    private final @Nullable BigDecimal deadband;
+    private final boolean coalesce;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<State> forwarder;
+
+    private @Nullable State lastState;
+    private long lastTime;
+    private @Nullable State pendingState;
+    private @Nullable ScheduledFuture<?> pendingFuture;
+
+    private long forwarded;
+    private long suppressed;
+
+    /**
+     * Creates a filter.
+     *
+     * @param config The channel configuration
+     * @param scheduler The scheduler for forwarding coalesced states
+     * @param forwarder Receives the states to be forwarded
+     */
+    public ChannelUpdateFilter(ChannelConfig config, ScheduledExecutorService scheduler, Consumer<State> forwarder) {
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(config.minInterval, 0));
+        this.deadband = config.deadband;
+        this.coalesce = config.coalesce;
+        this.scheduler = scheduler;
+        this.forwarder = forwarder;
+    }
+
+    /**
+     * Returns true if the configuration limits the state updates at all.
+     *
+     * @param config The channel configuration
+     */
+    public static boolean isRequired(ChannelConfig config) {
+        return config.minInterval > 0 || config.deadband != null;
+    }
+
+    /**
+     * A new state has been received. It is forwarded now, later or not at all.
+     *
+     * @param state The new state
+     */
+    public synchronized void update(State state) {
+        long now = System.nanoTime();
+        long wait = lastTime + minIntervalNanos - now;
+        if (pendingState != null) {
+            // replaced by the newer state, even if that is within the deadband, so an outdated state is not forwarded
+            suppressed++;
+            pendingState = null;
+            if (lastState != null && wait > 0) {
+                pendingState = state;
+                return;
+            }
+        }
+        if (isWithinDeadband(state)) {
+            suppressed++;
+            return;
+        }
+        if (lastState != null && wait > 0) {
+            if (coalesce) {
+                pendingState = state;
+                if (pendingFuture == null) {
+                    pendingFuture = scheduler.schedule(this::forwardPending, wait, TimeUnit.NANOSECONDS);
+                }
+            } else {
+                suppressed++;
+            }
+            return;
+        }
+        forward(state, now);
+    }
+
+    private synchronized void forwardPending() {
+        pendingFuture = null;
+        final State state = pendingState;
+        pendingState = null;
+        if (state == null) {
+            return;
+        }
+        if (isWithinDeadband(state)) {
+            suppressed++;
+            return;
+        }
+        forward(state, System.nanoTime());
+    }
+
+    private boolean isWithinDeadband(State state) {
+        final BigDecimal deadband = this.deadband;
+        final State lastState = this.lastState;
+        if (deadband == null || !(state instanceof DecimalType) || !(lastState instanceof DecimalType)) {
+            return false;
+        }
+        BigDecimal difference = ((DecimalType) state).toBigDecimal().subtract(((DecimalType) lastState).toBigDecimal());
+        return difference.abs().compareTo(deadband) < 0;
+    }
+
+    private void forward(State state, long now) {
+        lastState = state;
+        lastTime = now;
+        forwarded++;
+        forwarder.accept(state);
+    }
+
+    /**
+     * Discards a kept state and forgets the last forwarded state.
+     */
+    public synchronized void reset() {
+        final ScheduledFuture<?> pendingFuture = this.pendingFuture;
+        if (pendingFuture != null) {
+            pendingFuture.cancel(false);
+            this.pendingFuture = null;
+        }
+        if (pendingState != null) {
+            suppressed++;
+            pendingState = null;
+        }
+        lastState = null;
+    }
+
+    /**
+     * Returns the number of forwarded states.
+     */
+    public synchronized long getForwarded() {
+        return forwarded;
+    }
+
+    /**
+     * Returns the number of suppressed states.
+     */
+    public synchronized long getSuppressed() {
+        return suppressed;
+    }
+}
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.binding.mqtt.generic.tools.TopicRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +46,11 @@ import org.slf4j.LoggerFactory;
  * </p>
  *
  * <p>
+ * If a {@link TopicRouter} is set via {@link #setTopicRouter(TopicRouter)}, the fields are not subscribed to
+ * individually. The router, which is subscribed to a wildcard topic, routes the messages to the fields instead.
+ * </p>
+ *
+ * <p>
  * The Homie 3.x convention uses attribute classes for Devices, Nodes and Properties configuration.
  * </p>
  *
@@ -107,6 +113,8 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
     };
     private transient boolean complete = false;
+    private transient @Nullable TopicRouter topicRouter;
+    private transient @Nullable TopicRouter subscribedRouter;
 
     /**
      * Implement this interface to be notified of an updated field.
@@ -139,6 +147,14 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> unsubscribe() {
+        final TopicRouter subscribedRouter = this.subscribedRouter;
+        if (subscribedRouter != null) {
+            this.subscribedRouter = null;
+            subscriptions.forEach(m -> subscribedRouter.unsubscribe(m.topic, m));
+            subscriptions.clear();
+            return CompletableFuture.completedFuture(null);
+        }
+
         final MqttBrokerConnection connection = this.connection.get();
         if (connection == null) {
             subscriptions.clear();
@@ -192,11 +208,34 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
                 .map(this::mapFieldToSubscriber).collect(Collectors.toList());
 
+        final TopicRouter topicRouter = this.topicRouter;
+        subscribedRouter = topicRouter;
         final CompletableFuture<?>[] futures = subscriptions.stream()
-                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
+                .map(m -> topicRouter != null ? m.routeAndReceive(topicRouter, timeout)
+                        : m.subscribeAndReceive(connection, timeout))
+                .toArray(CompletableFuture[]::new);
         return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
     }
 
+    /**
+     * Set a router, that is used instead of subscribing to each field topic.
+     * Must be set before {@link #subscribeAndReceive(MqttBrokerConnection, ScheduledExecutorService, String,
+     * AttributeChanged, int)} is called.
+     *
+     * @param topicRouter A router, subscribed to a wildcard topic covering the base topic. Can be null to subscribe to
+     *            each field topic again.
+     */
+    public void setTopicRouter(@Nullable TopicRouter topicRouter) {
+        this.topicRouter = topicRouter;
+    }
+
+    /**
+     * Return the router, that is used instead of subscribing to each field topic, or null.
+     */
+    public @Nullable TopicRouter getTopicRouter() {
+        return topicRouter;
+    }
+
     /**
      * Return fields of the given class as well as all super classes.
      *
@@ -13,60 +13,101 @@
 package org.openhab.binding.mqtt.generic.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Collects objects over time until a specified delay passed by.
+ * Collects objects over time until a specified delay passed by, or a maximum number of objects has been collected.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * <p>
+ * Adding objects does not lock. Objects are never lost, even if added concurrently with a delivery: they are either
+ * part of the delivered list or arm the delay timer again. Lists are delivered one at a time, in the order the objects
+ * were added, and contain at most the maximum number of objects. When the maximum number of objects is reached, the
+ * thread adding the last object delivers exactly one full list itself, so the consumer may run on a producer thread.
+ * This slows down producers, if they are faster than the consumer. Objects which do not fill a list wait for the
+ * delay.
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
  */
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
+    /** Default maximum number of objects delivered at once */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
     private final int delay;
+    private final int maxBatchSize;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final Lock deliveryLock = new ReentrantLock();
     private final ScheduledExecutorService executor;
-    protected @Nullable ScheduledFuture<?> future;
+    protected volatile @Nullable ScheduledFuture<?> future;
 
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} with the {@link #DEFAULT_MAX_BATCH_SIZE}.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
+        this(delay, DEFAULT_MAX_BATCH_SIZE, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxBatchSize The number of objects that are delivered right away, without waiting for the delay
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, int maxBatchSize, Consumer<List<T>> consumer,
+            ScheduledExecutorService executor) {
         this.delay = delay;
+        this.maxBatchSize = maxBatchSize;
         this.consumer = consumer;
         this.executor = executor;
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size need to be greater than 0!");
+        }
     }
 
     /**
      * Add new object to the batch process list. If the list was empty, the delay timer
-     * is armed and all successive objects are accumulated from here on.
+     * is armed and all successive objects are accumulated from here on. If the list is full,
+     * it is delivered right away, on the calling thread.
      *
      * @param t An object
      */
     @Override
     public void accept(T t) {
         queue.add(t);
-        final ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture == null || scheduledFuture.isDone()) {
-            this.future = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+        if (size.incrementAndGet() >= maxBatchSize) {
+            deliverFullBatch();
+        }
+        // Disarming happens before the queue is drained, so an object added after draining arms again
+        if (size.get() > 0 && armed.compareAndSet(false, true)) {
+            future = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -76,46 +117,75 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      * @return A list of accumulated objects
      */
     public List<T> join() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture != null && !scheduledFuture.isDone()) {
-            scheduledFuture.cancel(false);
-        }
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        disarm();
+        deliveryLock.lock();
+        try {
+            return drain(Integer.MAX_VALUE);
+        } finally {
+            deliveryLock.unlock();
         }
-        return lqueue;
     }
 
     /**
      * Return true if there is a delayed processing going on.
      */
     public boolean isArmed() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        return scheduledFuture != null && !scheduledFuture.isDone();
+        return armed.get();
     }
 
     /**
      * Deliver queued items now to the target consumer.
      */
     public void forceProcessNow() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture != null && !scheduledFuture.isDone()) {
-            scheduledFuture.cancel(false);
-        }
         run();
     }
 
+    /**
+     * Return the number of accumulated objects.
+     */
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    private void deliverFullBatch() {
+        deliveryLock.lock();
+        try {
+            // Another producer may have delivered the batch in the meantime
+            if (size.get() >= maxBatchSize) {
+                consumer.accept(drain(maxBatchSize));
+            }
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
     private void run() {
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        disarm();
+        deliveryLock.lock();
+        try {
+            List<T> lqueue;
+            while (!(lqueue = drain(maxBatchSize)).isEmpty()) {
+                consumer.accept(lqueue);
+            }
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    private void disarm() {
+        final ScheduledFuture<?> scheduledFuture = this.future;
+        if (armed.compareAndSet(true, false) && scheduledFuture != null && !scheduledFuture.isDone()) {
+            scheduledFuture.cancel(false);
         }
+    }
 
-        if (!lqueue.isEmpty()) {
-            consumer.accept(lqueue);
+    private List<T> drain(int limit) {
+        List<T> lqueue = new ArrayList<>(Math.min(size(), limit));
+        T t;
+        while (lqueue.size() < limit && (t = queue.poll()) != null) {
+            size.decrementAndGet();
+            lqueue.add(t);
         }
+        return lqueue;
     }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes to a single wildcard topic like "homie/device/#" and routes the received messages to the subscribers of
+ * the individual topics. This replaces a broker subscription per topic.
+ *
+ * <p>
+ * The last message of each attribute topic, whose last level starts with "$", is kept. So is the last message of a
+ * topic with a subscriber. A subscriber receives the kept message of its topic right away, so retained attributes
+ * that arrived before the subscriber was added are not lost. Messages of other topics, like property values, are
+ * only delivered to a subscriber if they arrive after it was added. This way they are not delivered twice, and the
+ * kept messages do not grow with every topic below the wildcard topic.
+ *
+ * <p>
+ * There is only one subscriber per topic. A router is started once and cannot be reused after it has been stopped.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicRouter implements MqttMessageSubscriber {
+    private final Logger logger = LoggerFactory.getLogger(TopicRouter.class);
+    private final String wildcardTopic;
+    private final Map<String, MqttMessageSubscriber> routes = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> lastMessages = new ConcurrentHashMap<>();
+    private final CompletableFuture<Boolean> started = new CompletableFuture<>();
+    private @Nullable MqttBrokerConnection connection;
+
+    /**
+     * Creates a {@link TopicRouter}.
+     *
+     * @param wildcardTopic A topic ending with the multi level wildcard, e.g. "homie/device/#".
+     */
+    public TopicRouter(String wildcardTopic) {
+        if (!wildcardTopic.endsWith("/#")) {
+            throw new IllegalArgumentException("Topic need to end with a multi level wildcard!");
+        }
+        this.wildcardTopic = wildcardTopic;
+    }
+
+    /**
+     * Subscribe to the wildcard topic.
+     *
+     * @param connection A broker connection
+     * @return A future that completes as soon as the broker acknowledged the subscription.
+     */
+    public CompletableFuture<Boolean> start(MqttBrokerConnection connection) {
+        this.connection = connection;
+        connection.subscribe(wildcardTopic, this).whenComplete((r, e) -> {
+            if (e != null) {
+                started.completeExceptionally(e);
+            } else {
+                started.complete(r);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Unsubscribe from the wildcard topic and forget all subscribers and messages.
+     *
+     * @return A future that completes as soon as the broker acknowledged the unsubscription.
+     */
+    public CompletableFuture<Boolean> stop() {
+        final MqttBrokerConnection connection = this.connection;
+        this.connection = null;
+        routes.clear();
+        lastMessages.clear();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(wildcardTopic, this);
+    }
+
+    /**
+     * Route the messages of the given topic to the given subscriber. The last message of the topic, if any, is
+     * delivered right away.
+     *
+     * @param topic A topic below the wildcard topic
+     * @param subscriber The subscriber
+     * @return A future that completes as soon as the wildcard subscription is acknowledged.
+     */
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        routes.put(topic, subscriber);
+        byte[] payload = lastMessages.get(topic);
+        while (payload != null) {
+            try {
+                subscriber.processMessage(topic, payload);
+            } catch (RuntimeException e) {
+                logger.warn("Subscriber failed to process the message of topic {}", topic, e);
+                break;
+            }
+            // A newer message may have been received in the meantime. Make sure the subscriber ends up with it.
+            final byte[] latest = lastMessages.get(topic);
+            payload = latest != payload ? latest : null;
+        }
+        return started;
+    }
+
+    /**
+     * Stop routing the messages of the given topic to the given subscriber.
+     *
+     * @param topic A topic below the wildcard topic
+     * @param subscriber The subscriber
+     */
+    public void unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        if (routes.remove(topic, subscriber) && !isAttributeTopic(topic)) {
+            lastMessages.remove(topic);
+        }
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        final MqttMessageSubscriber subscriber = routes.get(topic);
+        if (payload.length > 0 && (subscriber != null || isAttributeTopic(topic))) {
+            lastMessages.put(topic, payload);
+        } else {
+            lastMessages.remove(topic);
+        }
+        if (subscriber != null) {
+            subscriber.processMessage(topic, payload);
+        }
+    }
+
+    /**
+     * Returns true if the last level of the topic starts with "$", like "homie/device/$name".
+     */
+    private static boolean isAttributeTopic(String topic) {
+        return topic.startsWith("$", topic.lastIndexOf('/') + 1);
+    }
+}
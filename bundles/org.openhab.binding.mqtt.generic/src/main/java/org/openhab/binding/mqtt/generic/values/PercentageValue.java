@@ -120,6 +120,12 @@ public class PercentageValue extends Value {
         }
     }
 
+    @Override
+    public @Nullable Command parsePayload(byte[] payload) {
+        // DecimalType is the first supported command type, so any number is parsed as decimal
+        return parseDecimal(payload);
+    }
+
     @Override
     public String getMQTTpublishValue() {
         if (state == UnDefType.UNDEF) {
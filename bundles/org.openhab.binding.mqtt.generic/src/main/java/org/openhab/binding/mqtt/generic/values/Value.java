@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.generic.values;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URLConnection;
 import java.util.Collections;
 import java.util.List;
@@ -133,6 +134,49 @@ public abstract class Value {
         return null;
     }
 
+    /**
+     * Parses a text payload into a command, without decoding it into a String first. This is a shortcut for the
+     * common payloads of a value, which is only used if no transformations are applied to the payload.
+     *
+     * <p>
+     * The returned command must have the same effect on {@link #update(Command)} and {@link #isPostOnly(Command)} as
+     * the command parsed by {@link org.eclipse.smarthome.core.types.TypeParser} from the decoded payload and
+     * {@link #getSupportedCommandTypes()}.
+     * </p>
+     *
+     * @param payload The UTF-8 encoded payload
+     * @return The command, or null if the payload needs to be decoded and parsed the regular way.
+     */
+    public @Nullable Command parsePayload(byte[] payload) {
+        return null;
+    }
+
+    /**
+     * Parses an ASCII payload consisting of digits, sign, decimal point and exponent characters,
+     * the same way {@link DecimalType#valueOf(String)} parses it.
+     *
+     * @param payload The payload
+     * @return The decimal, or null if the payload is not a plain number
+     */
+    protected static @Nullable DecimalType parseDecimal(byte[] payload) {
+        if (payload.length == 0 || payload.length > 64) {
+            return null;
+        }
+        char[] chars = new char[payload.length];
+        for (int i = 0; i < payload.length; i++) {
+            byte b = payload[i];
+            if ((b < '0' || b > '9') && b != '-' && b != '+' && b != '.' && b != 'e' && b != 'E') {
+                return null;
+            }
+            chars[i] = (char) b;
+        }
+        try {
+            return new DecimalType(new BigDecimal(chars));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Updates the internal value state with the given binary payload.
      *
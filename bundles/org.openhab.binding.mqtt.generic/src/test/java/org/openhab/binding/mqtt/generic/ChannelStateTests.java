@@ -32,10 +32,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.RawType;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.junit.After;
 import org.junit.Before;
@@ -174,6 +176,30 @@ public class ChannelStateTests {
         verify(channelStateUpdateListener, times(3)).updateChannelState(eq(channelUID), any());
     }
 
+    @Test
+    public void receiveDuplicateTest() {
+        NumberValue value = spy(new NumberValue(null, null, new BigDecimal(10)));
+        ChannelState c = spy(new ChannelState(config, channelUID, value, channelStateUpdateListener));
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "15".getBytes());
+        c.processMessage("state", "15".getBytes());
+        assertThat(value.getChannelState().toString(), is("15"));
+        verify(value, times(1)).update(any(Command.class));
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), eq(new DecimalType(15)));
+
+        // Relative commands are applied every time
+        c.processMessage("state", "INCREASE".getBytes());
+        c.processMessage("state", "INCREASE".getBytes());
+        assertThat(value.getChannelState().toString(), is("35"));
+
+        // The state changed by a published command is replaced by the received one
+        c.processMessage("state", "15".getBytes());
+        c.publishValue(new DecimalType(20));
+        c.processMessage("state", "15".getBytes());
+        assertThat(value.getChannelState().toString(), is("15"));
+    }
+
     @Test
     public void receiveDecimalFractionalTest() {
         NumberValue value = new NumberValue(null, null, new BigDecimal(10.5));
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests the {@link ChannelUpdateFilter} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class ChannelUpdateFilterTests {
+    private ScheduledExecutorService scheduler;
+    private List<State> forwarded = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        forwarded.clear();
+    }
+
+    @Test
+    public void isRequired() {
+        assertFalse(ChannelUpdateFilter.isRequired(ChannelConfigBuilder.create().withCoalesce(true).build()));
+        assertTrue(ChannelUpdateFilter.isRequired(ChannelConfigBuilder.create().withMinInterval(100).build()));
+        assertTrue(ChannelUpdateFilter
+                .isRequired(ChannelConfigBuilder.create().withDeadband(BigDecimal.ONE).build()));
+    }
+
+    @Test
+    public void deadband() {
+        ChannelUpdateFilter filter = new ChannelUpdateFilter(
+                ChannelConfigBuilder.create().withDeadband(new BigDecimal(5)).build(), scheduler, forwarded::add);
+
+        filter.update(new DecimalType(10));
+        filter.update(new DecimalType(14));
+        filter.update(new DecimalType(6));
+        filter.update(new DecimalType(15));
+        filter.update(new StringType("not a number"));
+
+        assertThat(forwarded, is(listOf(new DecimalType(10), new DecimalType(15), new StringType("not a number"))));
+        assertThat(filter.getForwarded(), is(3L));
+        assertThat(filter.getSuppressed(), is(2L));
+    }
+
+    @Test
+    public void minIntervalWithoutCoalescing() {
+        ChannelUpdateFilter filter = new ChannelUpdateFilter(
+                ChannelConfigBuilder.create().withMinInterval(60000).build(), scheduler, forwarded::add);
+
+        filter.update(new DecimalType(1));
+        filter.update(new DecimalType(2));
+        filter.update(new DecimalType(3));
+
+        assertThat(forwarded, is(listOf(new DecimalType(1))));
+        assertThat(filter.getSuppressed(), is(2L));
+        verifyZeroInteractions(scheduler);
+    }
+
+    @Test
+    public void minIntervalWithCoalescing() {
+        ChannelUpdateFilter filter = new ChannelUpdateFilter(
+                ChannelConfigBuilder.create().withMinInterval(60000).withCoalesce(true).build(), scheduler,
+                forwarded::add);
+
+        filter.update(new DecimalType(1));
+        filter.update(new DecimalType(2));
+        filter.update(new DecimalType(3));
+        assertThat(forwarded, is(listOf(new DecimalType(1))));
+
+        // The latest state is forwarded once the interval has passed
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(task.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+        task.getValue().run();
+
+        assertThat(forwarded, is(listOf(new DecimalType(1), new DecimalType(3))));
+        assertThat(filter.getForwarded(), is(2L));
+        assertThat(filter.getSuppressed(), is(1L));
+    }
+
+    @Test
+    public void keptStateIsReplacedByStateWithinDeadband() {
+        ChannelUpdateFilter filter = new ChannelUpdateFilter(ChannelConfigBuilder.create().withMinInterval(60000)
+                .withCoalesce(true).withDeadband(new BigDecimal(5)).build(), scheduler, forwarded::add);
+
+        filter.update(new DecimalType(100));
+        filter.update(new DecimalType(200));
+        filter.update(new DecimalType(101));
+
+        // The outdated state is not forwarded, and the latest one is within the deadband
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(task.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+        task.getValue().run();
+
+        assertThat(forwarded, is(listOf(new DecimalType(100))));
+        assertThat(filter.getForwarded(), is(1L));
+        assertThat(filter.getSuppressed(), is(2L));
+    }
+
+    @Test
+    public void statesAreForwardedOneAtATime() throws InterruptedException {
+        CountDownLatch forwarding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<State> states = new ArrayList<>();
+        ChannelUpdateFilter filter = new ChannelUpdateFilter(
+                ChannelConfigBuilder.create().withDeadband(BigDecimal.ONE).build(), scheduler, state -> {
+                    states.add(state);
+                    if (state.equals(new DecimalType(1))) {
+                        forwarding.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+
+        Thread first = new Thread(() -> filter.update(new DecimalType(1)));
+        first.start();
+        assertTrue(forwarding.await(5, TimeUnit.SECONDS));
+        Thread second = new Thread(() -> filter.update(new DecimalType(2)));
+        second.start();
+
+        // The second state waits until the first one has been forwarded
+        long deadline = System.currentTimeMillis() + 5000;
+        while (second.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(second.getState(), is(Thread.State.BLOCKED));
+        assertThat(states, is(listOf(new DecimalType(1))));
+
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+        assertThat(states, is(listOf(new DecimalType(1), new DecimalType(2))));
+    }
+
+    private static List<State> listOf(State... states) {
+        List<State> list = new ArrayList<>();
+        for (State state : states) {
+            list.add(state);
+        }
+        return list;
+    }
+}
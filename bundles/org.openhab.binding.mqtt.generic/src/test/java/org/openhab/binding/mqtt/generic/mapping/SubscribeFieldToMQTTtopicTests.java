@@ -15,8 +15,8 @@ package org.openhab.binding.mqtt.generic.mapping;
 import static java.lang.annotation.ElementType.FIELD;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -42,6 +42,7 @@ import org.openhab.binding.mqtt.generic.mapping.MQTTvalueTransform;
 import org.openhab.binding.mqtt.generic.mapping.SubscribeFieldToMQTTtopic;
 import org.openhab.binding.mqtt.generic.mapping.TopicPrefix;
 import org.openhab.binding.mqtt.generic.mapping.SubscribeFieldToMQTTtopic.FieldChanged;
+import org.openhab.binding.mqtt.generic.tools.TopicRouter;
 
 /**
  * Tests cases for {@link SubscribeFieldToMQTTtopic}.
@@ -157,4 +158,36 @@ public class SubscribeFieldToMQTTtopicTests {
         assertThat(attributes.Int, is(10));
     }
 
+    @Test
+    public void RetainedMessageRouted()
+            throws InterruptedException, NoSuchFieldException, ExecutionException, TimeoutException {
+        final FieldChanged changed = (field, value) -> {
+            try {
+                field.set(attributes.getFieldsOf(), value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                fail(e.getMessage());
+            }
+        };
+        final Field field = Attributes.class.getField("Int");
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+        try {
+            TopicRouter router = new TopicRouter("homie/device123/#");
+            router.start(connection);
+            // Simulate a retained MQTT message, received before the field is routed
+            router.processMessage("homie/device123/$aInt", "12".getBytes());
+
+            SubscribeFieldToMQTTtopic subscriber = new SubscribeFieldToMQTTtopic(scheduler, field, changed,
+                    "homie/device123/$aInt", false);
+            CompletableFuture<@Nullable Void> future = subscriber.routeAndReceive(router, 1000);
+
+            // Received right away, without subscribing to the topic
+            assertTrue(future.isDone());
+            future.get(50, TimeUnit.MILLISECONDS);
+            assertThat(attributes.Int, is(12));
+            verify(connection).subscribe(eq("homie/device123/#"), eq(router));
+            verify(connection, never()).subscribe(eq("homie/device123/$aInt"), any());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DelayedBatchProcessing} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedBatchProcessingTests {
+    private ScheduledExecutorService scheduler;
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(2);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void flushOnTime() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(50, 10, batches::add, scheduler);
+        processing.accept(1);
+        processing.accept(2);
+        assertTrue(processing.isArmed());
+        assertThat(batches.size(), is(0));
+
+        waitForBatches(1);
+        assertThat(batches.get(0), is(listOf(1, 2)));
+        assertFalse(processing.isArmed());
+    }
+
+    @Test
+    public void flushOnSize() {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(60000, 3, batches::add, scheduler);
+        for (int i = 0; i < 7; i++) {
+            processing.accept(i);
+        }
+        // Delivered by the thread adding the last object of a full batch
+        assertThat(batches, is(listOf(listOf(0, 1, 2), listOf(3, 4, 5))));
+        assertThat(processing.size(), is(1));
+        // The remainder waits for the delay
+        assertTrue(processing.isArmed());
+        assertThat(processing.join(), is(listOf(6)));
+        assertFalse(processing.isArmed());
+    }
+
+    @Test
+    public void remainderIsDelayedAfterFullBatch() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(200, 3, batches::add, scheduler);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            processing.accept(i);
+        }
+        assertThat(batches, is(listOf(listOf(0, 1, 2))));
+
+        waitForBatches(2);
+        assertThat(batches, is(listOf(listOf(0, 1, 2), listOf(3))));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    public void concurrentAcceptLosesNothing() throws InterruptedException {
+        final int threads = 8;
+        final int perThread = 20000;
+        final int maxBatchSize = 100;
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(5, maxBatchSize, batches::add,
+                scheduler);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * perThread;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    processing.accept(offset + i);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // The remainder is delivered by the timer
+        long deadline = System.currentTimeMillis() + 5000;
+        while (countDelivered() < threads * perThread && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Set<Integer> delivered = new HashSet<>();
+        synchronized (batches) {
+            for (List<Integer> batch : batches) {
+                assertTrue(batch.size() <= maxBatchSize);
+                delivered.addAll(batch);
+            }
+        }
+        assertThat(countDelivered(), is(threads * perThread));
+        assertThat(delivered.size(), is(threads * perThread));
+        assertThat(processing.size(), is(0));
+    }
+
+    private int countDelivered() {
+        synchronized (batches) {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private void waitForBatches(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (batches.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... objects) {
+        List<T> list = new ArrayList<>();
+        Collections.addAll(list, objects);
+        return list;
+    }
+}
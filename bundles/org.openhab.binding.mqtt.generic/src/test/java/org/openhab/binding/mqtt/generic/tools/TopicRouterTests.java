@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests the {@link TopicRouter} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicRouterTests {
+    private static final String TOPIC = "homie/device/$name";
+
+    @Mock
+    MqttBrokerConnection connection;
+
+    @Mock
+    MqttMessageSubscriber subscriber;
+
+    private TopicRouter router;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        router = new TopicRouter("homie/device/#");
+    }
+
+    @Test
+    public void subscribesOnce() {
+        router.start(connection);
+        assertTrue(router.subscribe(TOPIC, subscriber).isDone());
+        router.subscribe("homie/device/$state", subscriber);
+
+        verify(connection, times(1)).subscribe(any(), any());
+        verify(connection).subscribe(eq("homie/device/#"), eq(router));
+    }
+
+    @Test
+    public void routesMessages() {
+        router.start(connection);
+        router.subscribe(TOPIC, subscriber);
+
+        byte[] payload = "name".getBytes();
+        router.processMessage(TOPIC, payload);
+        router.processMessage("homie/device/$state", "ready".getBytes());
+
+        verify(subscriber).processMessage(eq(TOPIC), eq(payload));
+        verifyNoMoreInteractions(subscriber);
+    }
+
+    @Test
+    public void replaysLastMessage() {
+        router.start(connection);
+        router.processMessage(TOPIC, "old".getBytes());
+        byte[] payload = "new".getBytes();
+        router.processMessage(TOPIC, payload);
+
+        router.subscribe(TOPIC, subscriber);
+        verify(subscriber).processMessage(eq(TOPIC), eq(payload));
+        verifyNoMoreInteractions(subscriber);
+    }
+
+    @Test
+    public void deletedMessageIsNotReplayed() {
+        router.start(connection);
+        router.processMessage(TOPIC, "name".getBytes());
+        router.processMessage(TOPIC, new byte[0]);
+
+        router.subscribe(TOPIC, subscriber);
+        verifyNoMoreInteractions(subscriber);
+    }
+
+    @Test
+    public void valueIsOnlyKeptWithSubscriber() {
+        final String valueTopic = "homie/device/node/property";
+        router.start(connection);
+        router.processMessage(valueTopic, "before".getBytes());
+
+        router.subscribe(valueTopic, subscriber);
+        verifyNoMoreInteractions(subscriber);
+
+        byte[] payload = "routed".getBytes();
+        router.processMessage(valueTopic, payload);
+        verify(subscriber).processMessage(eq(valueTopic), eq(payload));
+
+        // Kept while routed
+        MqttMessageSubscriber other = mock(MqttMessageSubscriber.class);
+        router.subscribe(valueTopic, other);
+        verify(other).processMessage(eq(valueTopic), eq(payload));
+
+        // Forgotten when unrouted
+        router.unsubscribe(valueTopic, other);
+        router.subscribe(valueTopic, subscriber);
+        verifyNoMoreInteractions(subscriber);
+    }
+
+    @Test
+    public void unsubscribeAndStop() {
+        router.start(connection);
+        router.subscribe(TOPIC, subscriber);
+        router.unsubscribe(TOPIC, subscriber);
+        router.processMessage(TOPIC, "name".getBytes());
+        verifyNoMoreInteractions(subscriber);
+
+        router.stop();
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(router));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresWildcardTopic() {
+        new TopicRouter("homie/device");
+    }
+}
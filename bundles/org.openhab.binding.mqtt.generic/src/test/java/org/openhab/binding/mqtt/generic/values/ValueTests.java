@@ -231,4 +231,45 @@ public class ValueTests {
                 null);
         v.update(new DecimalType(9.0));
     }
+
+    @Test
+    public void parsePayloadLikeTypeParser() {
+        Value[] values = { new NumberValue(null, null, null), new PercentageValue(null, null, null, "on", "off"),
+                new OnOffValue("1", "0"), new OnOffValue("OFF", "ON") };
+        String[] payloads = { "10", "-1.5", "+2", "1e3", "1.2.3", "", "ON", "OFF", "1", "0", "on", "INCREASE" };
+        for (Value v : values) {
+            for (String payload : payloads) {
+                Command command = v.parsePayload(payload.getBytes());
+                if (command != null) {
+                    assertThat(v.getClass().getSimpleName() + " " + payload, effect(v, command),
+                            is(effect(v, p(v, payload))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the state after the update, or the type of the exception thrown
+     */
+    private Object effect(Value v, Command command) {
+        try {
+            v.update(command);
+            return v.getChannelState();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    @Test
+    public void onoffParsePayload() {
+        OnOffValue v = new OnOffValue("fancyON", "fancyOff");
+        assertThat(v.parsePayload("fancyON".getBytes()), is(OnOffType.ON));
+        assertThat(v.parsePayload("fancyOff".getBytes()), is(OnOffType.OFF));
+        assertThat(v.parsePayload("OFF".getBytes()), is(OnOffType.OFF));
+        assertNull(v.parsePayload("other".getBytes()));
+
+        // OnOffType is parsed before the custom states
+        OnOffValue inverted = new OnOffValue("OFF", "ON");
+        assertThat(inverted.parsePayload("ON".getBytes()), is(OnOffType.ON));
+    }
 }
@@ -13,7 +13,10 @@
 package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +37,11 @@ import com.google.gson.Gson;
  * Responsible for subscribing to the HomeAssistant MQTT components wildcard topic, either
  * in a time limited discovery mode or as a background discovery.
  *
+ * <p>
+ * The last configuration of each component is remembered. A retained configuration, that is received again after a
+ * reconnect, is not parsed again, but the already known component is reported. New configurations are parsed on the
+ * given executor. If a newer configuration of the same component arrives meanwhile, the older one is dropped.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -41,6 +49,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     private final Logger logger = LoggerFactory.getLogger(DiscoverComponents.class);
     private final ThingUID thingUID;
     private final ScheduledExecutorService scheduler;
+    private final Executor parseExecutor;
     private final @Nullable ChannelStateUpdateListener updateListener;
     private final TransformationServiceProvider transformationServiceProvider;
 
@@ -52,6 +61,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     protected @NonNullByDefault({}) ComponentDiscovered discoveredListener;
     private int discoverTime;
     private String topic = "";
+    private final Map<String, KnownConfig> knownConfigs = new ConcurrentHashMap<>();
 
     /**
      * Implement this to get notified of new components
@@ -70,8 +80,23 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
             @Nullable ChannelStateUpdateListener channelStateUpdateListener, Gson gson,
             TransformationServiceProvider transformationServiceProvider) {
+        this(thingUID, scheduler, scheduler, channelStateUpdateListener, gson, transformationServiceProvider);
+    }
+
+    /**
+     * Create a new discovery object.
+     *
+     * @param thingUID The Thing UID to perform the discovery for.
+     * @param scheduler A scheduler for timeouts
+     * @param parseExecutor An executor for parsing component configurations
+     * @param channelStateUpdateListener Channel update listener. Usually the handler.
+     */
+    public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler, Executor parseExecutor,
+            @Nullable ChannelStateUpdateListener channelStateUpdateListener, Gson gson,
+            TransformationServiceProvider transformationServiceProvider) {
         this.thingUID = thingUID;
         this.scheduler = scheduler;
+        this.parseExecutor = parseExecutor;
         this.updateListener = channelStateUpdateListener;
         this.gson = gson;
         this.transformationServiceProvider = transformationServiceProvider;
@@ -82,20 +107,63 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         if (!topic.endsWith("/config")) {
             return;
         }
-        HaID haID = new HaID(topic);
         String config = new String(payload);
+        int configHash = config.hashCode();
+        KnownConfig known = knownConfigs.get(topic);
+        if (known != null && known.configHash == configHash) {
+            // Unchanged. If it is still parsed, the component will be reported by the parser
+            AbstractComponent<?> component = known.component;
+            if (component != null) {
+                logger.trace("Configuration of HomeAssistant thing {} component {} unchanged", known.haID.objectID,
+                        known.haID.component);
+                notifyDiscovered(known.haID, component);
+            }
+            return;
+        }
+        KnownConfig pending = new KnownConfig(known != null ? known.haID : new HaID(topic), configHash);
+        knownConfigs.put(topic, pending);
+        parseExecutor.execute(() -> parseConfig(topic, config, pending));
+    }
+
+    private void parseConfig(String topic, String config, KnownConfig pending) {
+        if (knownConfigs.get(topic) != pending) {
+            return; // Replaced by a newer configuration in the meantime
+        }
+        HaID haID = pending.haID;
         AbstractComponent<?> component = CFactory.createComponent(thingUID, haID, config, updateListener, gson,
                 transformationServiceProvider);
+        if (knownConfigs.get(topic) != pending) {
+            return; // Replaced by a newer configuration while parsing
+        }
         if (component != null) {
             logger.trace("Found HomeAssistant thing {} component {}", haID.objectID, haID.component);
-            if (discoveredListener != null) {
-                discoveredListener.componentDiscovered(haID, component);
-            }
+            pending.component = component;
+            notifyDiscovered(haID, component);
         } else {
             logger.debug("Configuration of HomeAssistant thing {} invalid: {}", haID.objectID, config);
         }
     }
 
+    private void notifyDiscovered(HaID haID, AbstractComponent<?> component) {
+        final @Nullable ComponentDiscovered discoveredListener = this.discoveredListener;
+        if (discoveredListener != null) {
+            discoveredListener.componentDiscovered(haID, component);
+        }
+    }
+
+    /**
+     * Remember a component, that has been restored from a previous run. If the same configuration is received,
+     * the given component is reported instead of parsing the configuration again.
+     *
+     * @param haID The location of the component
+     * @param component The component
+     */
+    public void addKnownComponent(HaID haID, AbstractComponent<?> component) {
+        KnownConfig known = new KnownConfig(haID, component.getConfigHash());
+        known.component = component;
+        knownConfigs.put(haID.getTopic("config"), known);
+    }
+
     /**
      * Start a components discovery.
      *
@@ -168,4 +236,15 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     public void stopDiscovery() {
         subscribeFail(new Throwable("Stopped"));
     }
+
+    private static class KnownConfig {
+        final HaID haID;
+        final int configHash;
+        volatile @Nullable AbstractComponent<?> component;
+
+        KnownConfig(HaID haID, int configHash) {
+            this.haID = haID;
+            this.configHash = configHash;
+        }
+    }
 }
@@ -18,6 +18,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -48,6 +49,10 @@ import com.google.gson.GsonBuilder;
  * The {@link HomeAssistantDiscovery} is responsible for discovering device nodes that follow the
  * Home Assistant MQTT discovery convention (https://www.home-assistant.io/docs/mqtt/discovery/).
  *
+ * <p>
+ * Retained configurations are received again whenever the broker connection is re-established. A configuration that
+ * has already been reported is recognized by its hash and not parsed again.
+ *
  * @author David Graeff - Initial contribution
  */
 @Component(immediate = true, service = DiscoveryService.class, configurationPid = "discovery.mqttha")
@@ -55,6 +60,7 @@ import com.google.gson.GsonBuilder;
 public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantDiscovery.class);
     protected final Map<String, Set<String>> componentsPerThingID = new TreeMap<>();
+    private final Map<String, KnownConfig> knownConfigs = new ConcurrentHashMap<>();
     private @Nullable ScheduledFuture<?> future;
     private final Gson gson;
 
@@ -98,6 +104,20 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         return mqttTopicDiscovery;
     }
 
+    @Override
+    protected void startScan() {
+        // Report all configurations again
+        knownConfigs.clear();
+        super.startScan();
+    }
+
+    @Override
+    protected void startBackgroundDiscovery() {
+        // Restored results are removed, so report all configurations again
+        knownConfigs.clear();
+        super.startBackgroundDiscovery();
+    }
+
     /**
      * @param topic A topic like "homeassistant/binary_sensor/garden/config"
      * @return Returns the "mydevice" part of the example
@@ -132,7 +152,15 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         // We will of course find multiple of the same unique Thing IDs, for each different component another one.
         // Therefore the components are assembled into a list and given to the DiscoveryResult label for the user to
         // easily recognize object capabilities.
-        HaID topicParts = determineTopicParts(topic);
+        final String configJSON = new String(payload, StandardCharsets.UTF_8);
+        final int configHash = configJSON.hashCode();
+        final String configKey = connectionBridge.getAsString() + "#" + topic;
+        KnownConfig known = knownConfigs.get(configKey);
+        final boolean unchanged = known != null && known.configHash == configHash;
+        HaID topicParts = known != null ? known.haID : determineTopicParts(topic);
+        if (!unchanged) {
+            knownConfigs.put(configKey, new KnownConfig(topicParts, configHash));
+        }
         final String thingID = topicParts.getFallbackGroupId();
         final ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, connectionBridge,
                 thingID);
@@ -153,12 +181,16 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         }
         components.add(topicParts.component);
         componentsPerThingID.put(thingID, components);
+        if (unchanged) {
+            // Still part of the label, if another component of the same thing changes
+            logger.trace("Discovered an unchanged component {}", topicParts.component);
+            return;
+        }
 
         final String componentNames = components.stream().map(c -> HA_COMP_TO_NAME.getOrDefault(c, c))
                 .collect(Collectors.joining(","));
 
-        BaseChannelConfiguration config = BaseChannelConfiguration
-                .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+        BaseChannelConfiguration config = BaseChannelConfiguration.fromString(configJSON, gson);
 
         Map<String, Object> properties = new HashMap<>();
         HandlerConfiguration handlerConfig = topicParts.toHandlerConfiguration();
@@ -178,8 +210,18 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
             return;
         }
         final String thingID = determineTopicParts(topic).objectID;
+        knownConfigs.remove(connectionBridge.getAsString() + "#" + topic);
         componentsPerThingID.remove(thingID);
         thingRemoved(new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, connectionBridge, thingID));
     }
 
+    private static class KnownConfig {
+        final HaID haID;
+        final int configHash;
+
+        KnownConfig(HaID haID, int configHash) {
+            this.haID = haID;
+            this.configHash = configHash;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import java.util.function.Consumer;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -72,6 +73,9 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         implements ComponentDiscovered, Consumer<List<AbstractComponent<?>>> {
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantThingHandler.class);
 
+    /** Name of the thread pool, that is shared by all things for parsing component configurations */
+    static final String PARSER_THREADPOOL_NAME = "mqtt-homeassistant";
+
     protected final MqttChannelTypeProvider channelTypeProvider;
     public final int attributeReceiveTimeout;
     protected final DelayedBatchProcessing<AbstractComponent<?>> delayedProcessing;
@@ -103,8 +107,8 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         this.transformationServiceProvider = transformationServiceProvider;
         this.attributeReceiveTimeout = attributeReceiveTimeout;
         this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, this, scheduler);
-        this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler, this, gson,
-                this.transformationServiceProvider);
+        this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler,
+                ThreadPoolManager.getPool(PARSER_THREADPOOL_NAME), this, gson, this.transformationServiceProvider);
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -143,6 +147,8 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
             if (component != null) {
                 haComponents.put(component.uid().getId(), component);
                 component.addChannelTypes(channelTypeProvider);
+                // An unchanged retained configuration does not need to be parsed again
+                discoverComponents.addKnownComponent(haID, component);
             } else {
                 logger.warn("Could not restore component {}", thing);
             }
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests the configuration cache of {@link DiscoverComponents}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DiscoverComponentsTests {
+    private static final String TOPIC = "homeassistant/switch/object/config";
+    private static final String CONFIG = "{\"name\":\"A\",\"state_topic\":\"homeassistant/switch/object/state\","
+            + "\"command_topic\":\"homeassistant/switch/object/set\"}";
+    private static final String CHANGED_CONFIG = CONFIG.replace("\"A\"", "\"B\"");
+
+    private final ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, "device");
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory())
+            .create();
+    private final List<Runnable> parseTasks = new ArrayList<>();
+    private final List<AbstractComponent<?>> discovered = new ArrayList<>();
+
+    private TransformationServiceProvider transformationServiceProvider;
+    private DiscoverComponents discover;
+
+    @Before
+    public void setUp() {
+        transformationServiceProvider = mock(TransformationServiceProvider.class);
+        MqttBrokerConnection connection = mock(MqttBrokerConnection.class);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+
+        discover = new DiscoverComponents(thingUID, mock(ScheduledExecutorService.class), parseTasks::add, null, gson,
+                transformationServiceProvider);
+        discover.startDiscovery(connection, 0, new HaID(TOPIC), (haID, component) -> discovered.add(component));
+    }
+
+    @Test
+    public void unchangedConfigIsNotParsedAgain() {
+        discover.processMessage(TOPIC, CONFIG.getBytes(StandardCharsets.UTF_8));
+        runParseTasks();
+        assertThat(discovered.size(), is(1));
+
+        discover.processMessage(TOPIC, CONFIG.getBytes(StandardCharsets.UTF_8));
+        assertThat(parseTasks.size(), is(0));
+        assertThat(discovered.size(), is(2));
+        assertThat(discovered.get(1), is(sameInstance(discovered.get(0))));
+
+        discover.processMessage(TOPIC, CHANGED_CONFIG.getBytes(StandardCharsets.UTF_8));
+        runParseTasks();
+        assertThat(discovered.size(), is(3));
+        assertThat(discovered.get(2).getConfigHash(), is(CHANGED_CONFIG.hashCode()));
+    }
+
+    @Test
+    public void outdatedConfigIsDropped() {
+        discover.processMessage(TOPIC, CONFIG.getBytes(StandardCharsets.UTF_8));
+        discover.processMessage(TOPIC, CHANGED_CONFIG.getBytes(StandardCharsets.UTF_8));
+        runParseTasks();
+
+        assertThat(discovered.size(), is(1));
+        assertThat(discovered.get(0).getConfigHash(), is(CHANGED_CONFIG.hashCode()));
+    }
+
+    @Test
+    public void restoredComponentIsReported() {
+        HaID haID = new HaID(TOPIC);
+        AbstractComponent<?> restored = CFactory.createComponent(thingUID, haID, CONFIG, null, gson,
+                transformationServiceProvider);
+        assertNotNull(restored);
+        discover.addKnownComponent(haID, restored);
+
+        discover.processMessage(TOPIC, CONFIG.getBytes(StandardCharsets.UTF_8));
+        assertThat(parseTasks.size(), is(0));
+        assertThat(discovered.size(), is(1));
+        assertThat(discovered.get(0), is(sameInstance(restored)));
+    }
+
+    private void runParseTasks() {
+        List<Runnable> tasks = new ArrayList<>(parseTasks);
+        parseTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+}
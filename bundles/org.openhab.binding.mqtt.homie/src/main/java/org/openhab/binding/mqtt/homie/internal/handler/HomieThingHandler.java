@@ -15,6 +15,7 @@ package org.openhab.binding.mqtt.homie.internal.handler;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -30,6 +31,7 @@ import org.openhab.binding.mqtt.generic.AbstractMQTTThingHandler;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.TopicRouter;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homie.internal.homie300.Device;
 import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
@@ -58,6 +60,7 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
     protected HandlerConfiguration config = new HandlerConfiguration();
     protected DelayedBatchProcessing<Object> delayedProcessing;
     private @Nullable ScheduledFuture<?> heartBeatTimer;
+    private @Nullable TopicRouter topicRouter;
 
     /**
      * Create a new thing handler for homie discovered things. A channel type provider and a topic value receive timeout
@@ -118,10 +121,22 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         // We have mostly retained messages for Homie. QoS 1 is required.
         connection.setRetain(true);
         connection.setQos(1);
+        final long startTime = System.nanoTime();
+        if (config.bulksubscribe) {
+            // Receive all attributes of the device, its nodes and properties with a single subscription. Property
+            // values keep their own subscription, so the broker sends them twice, and the router drops its copy.
+            TopicRouter topicRouter = new TopicRouter(config.basetopic + "/" + config.deviceid + "/#");
+            this.topicRouter = topicRouter;
+            topicRouter.start(connection);
+            device.attributes.setTopicRouter(topicRouter);
+        } else {
+            device.attributes.setTopicRouter(null);
+        }
         return device.subscribe(connection, scheduler, attributeReceiveTimeout).thenCompose((Void v) -> {
             return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
         }).thenRun(() -> {
-            logger.debug("Homie device {} fully attached", device.attributes.name);
+            logger.debug("Homie device {} fully attached after {} ms", device.attributes.name,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
         });
     }
 
@@ -135,6 +150,11 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         }
         delayedProcessing.join();
         device.stop();
+        final TopicRouter topicRouter = this.topicRouter;
+        if (topicRouter != null) {
+            topicRouter.stop();
+            this.topicRouter = null;
+        }
     }
 
     @Override
@@ -263,11 +263,14 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
 
     CompletableFuture<@Nullable Void> applyNodes(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
-        return nodes.apply(attributes.nodes, node -> node.subscribe(connection, scheduler, timeout), this::createNode,
-                this::notifyNodeRemoved).exceptionally(e -> {
-                    logger.warn("Could not subscribe", e);
-                    return null;
-                });
+        return nodes.apply(attributes.nodes, node -> {
+            // Nodes use the same router as the device
+            node.attributes.setTopicRouter(attributes.getTopicRouter());
+            return node.subscribe(connection, scheduler, timeout);
+        }, this::createNode, this::notifyNodeRemoved).exceptionally(e -> {
+            logger.warn("Could not subscribe", e);
+            return null;
+        });
     }
 
     @Override
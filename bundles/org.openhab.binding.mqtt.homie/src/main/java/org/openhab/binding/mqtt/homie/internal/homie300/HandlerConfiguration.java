@@ -36,4 +36,8 @@ public class HandlerConfiguration {
      * Indicates if retained topics should be removed when the Thing is deleted.
      */
     public boolean removetopics = false;
+    /**
+     * Subscribe once to all topics of the device, instead of subscribing to each attribute topic.
+     */
+    public boolean bulksubscribe = false;
 }
@@ -173,11 +173,14 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
 
     protected CompletableFuture<@Nullable Void> applyProperties(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
-        return properties.apply(attributes.properties, prop -> prop.subscribe(connection, scheduler, timeout),
-                this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
-                    logger.warn("Could not subscribe", e);
-                    return null;
-                });
+        return properties.apply(attributes.properties, prop -> {
+            // Properties use the same router as the node
+            prop.attributes.setTopicRouter(attributes.getTopicRouter());
+            return prop.subscribe(connection, scheduler, timeout);
+        }, this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
+            logger.warn("Could not subscribe", e);
+            return null;
+        });
     }
 
     @Override
@@ -14,8 +14,6 @@ package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -101,6 +99,27 @@ public class ModbusBitUtilities {
      */
     public static Optional<DecimalType> extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
+        return rawBitsToState(extractRawBitsFromRegisters(registers, index, type), type);
+    }
+
+    /**
+     * Read the bits of a value from registers without interpreting them
+     *
+     * The bits are returned right-aligned and zero-extended, e.g. INT16 value of -1 is returned as 0xffff. Registers
+     * of the SWAP types are already put to the most significant register first order. Interpretation of
+     * <tt>index</tt> is the same as with {@link #extractStateFromRegisters}.
+     *
+     * The raw bits are cheap to compare, and can be used to detect whether the value has changed before converting it
+     * to a state with {@link #rawBitsToState}.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return bits of the value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static long extractRawBitsFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
         int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
         // each register has 16 bits
         int lastValidIndex = registers.size() * 16 - 1;
@@ -111,107 +130,182 @@ public class ModbusBitUtilities {
         }
         switch (type) {
             case BIT:
-                return Optional
-                        .of(new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1));
+                return (registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1;
             case INT8:
-                return Optional.of(new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]));
             case UINT8:
-                return Optional.of(new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff));
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0)));
-            }
+                return (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff;
+            case INT16:
             case UINT16:
-                return Optional.of(new DecimalType(registers.getRegister(index).toUnsignedShort()));
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
+                return registers.getRegister(index).toUnsignedShort();
+            case INT32:
+            case UINT32:
+            case FLOAT32:
+                return concatRegisters(registers, index, 2, false);
+            case INT32_SWAP:
+            case UINT32_SWAP:
+            case FLOAT32_SWAP:
+                return concatRegisters(registers, index, 2, true);
+            case INT64:
+            case UINT64:
+                return concatRegisters(registers, index, 4, false);
+            case INT64_SWAP:
+            case UINT64_SWAP:
+                return concatRegisters(registers, index, 4, true);
             default:
                 throw new IllegalArgumentException(type.getConfigValue());
         }
     }
 
+    /**
+     * Read integer value from registers
+     *
+     * Interpretation of <tt>index</tt> is the same as with {@link #extractStateFromRegisters}.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type, one of BIT, INT8, UINT8, INT16, UINT16, INT32, INT32_SWAP
+     * @return value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when the values of the
+     *             type do not fit into int
+     */
+    public static int extractIntFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        switch (type) {
+            case BIT:
+            case INT8:
+            case UINT8:
+            case INT16:
+            case UINT16:
+            case INT32:
+            case INT32_SWAP:
+                return (int) extractLongFromRegisters(registers, index, type);
+            default:
+                throw new IllegalArgumentException(String.format("Values of type=%s do not fit into int", type));
+        }
+    }
+
+    /**
+     * Read integer value from registers
+     *
+     * Interpretation of <tt>index</tt> is the same as with {@link #extractStateFromRegisters}. UINT64 and UINT64_SWAP
+     * values are returned as the raw 64 bits, use e.g. {@link Long#toUnsignedString(long)} to interpret them.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type, any integer type
+     * @return value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when type is a floating
+     *             point type
+     */
+    public static long extractLongFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        if (isFloatingPoint(type)) {
+            throw new IllegalArgumentException(String.format("Type=%s is not an integer type", type));
+        }
+        return rawBitsToLong(extractRawBitsFromRegisters(registers, index, type), type);
+    }
+
+    /**
+     * Read floating point value from registers
+     *
+     * Unlike {@link #extractStateFromRegisters}, NaN and infinity are returned as is.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based register index
+     * @param type item type, FLOAT32 or FLOAT32_SWAP
+     * @return value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when type is not a
+     *             floating point type
+     */
+    public static float extractFloatFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        if (!isFloatingPoint(type)) {
+            throw new IllegalArgumentException(String.format("Type=%s is not a floating point type", type));
+        }
+        return Float.intBitsToFloat((int) extractRawBitsFromRegisters(registers, index, type));
+    }
+
+    /**
+     * Read value of any type from registers as double
+     *
+     * Note that large 64bit integers cannot be represented exactly as double. NaN and infinity are returned as is.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static double extractDoubleFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        long rawBits = extractRawBitsFromRegisters(registers, index, type);
+        if (isFloatingPoint(type)) {
+            return Float.intBitsToFloat((int) rawBits);
+        }
+        long value = rawBitsToLong(rawBits, type);
+        if (isUnsigned64(type) && value < 0) {
+            // Halve (keeping the lowest bit for correct rounding) to fit into signed range, and double back
+            return ((value >>> 1) | (value & 1)) * 2.0;
+        }
+        return value;
+    }
+
+    /**
+     * Convert bits returned by {@link #extractRawBitsFromRegisters} to state
+     *
+     * @param rawBits bits of the value
+     * @param type item type
+     * @return number representation of the value, <tt>DecimalType</tt>. Empty optional is returned
+     *         with NaN and infinity floating point values
+     */
+    public static Optional<DecimalType> rawBitsToState(long rawBits, ModbusConstants.ValueType type) {
+        if (isFloatingPoint(type)) {
+            try {
+                return Optional.of(new DecimalType(Float.intBitsToFloat((int) rawBits)));
+            } catch (NumberFormatException e) {
+                // floating point NaN or infinity encountered
+                return Optional.empty();
+            }
+        }
+        long value = rawBitsToLong(rawBits, type);
+        if (isUnsigned64(type) && value < 0) {
+            return Optional.of(new DecimalType(new BigDecimal(new BigInteger(Long.toUnsignedString(value)))));
+        }
+        return Optional.of(new DecimalType(value));
+    }
+
+    private static long concatRegisters(ModbusRegisterArray registers, int index, int count, boolean swap) {
+        long bits = 0;
+        for (int i = 0; i < count; i++) {
+            int registerIndex = swap ? index + count - 1 - i : index + i;
+            bits = (bits << 16) | registers.getRegister(registerIndex).toUnsignedShort();
+        }
+        return bits;
+    }
+
+    private static long rawBitsToLong(long rawBits, ModbusConstants.ValueType type) {
+        switch (type) {
+            case INT8:
+                return (byte) rawBits;
+            case INT16:
+                return (short) rawBits;
+            case INT32:
+            case INT32_SWAP:
+                return (int) rawBits;
+            default:
+                // unsigned, or 64 bits
+                return rawBits;
+        }
+    }
+
+    private static boolean isFloatingPoint(ModbusConstants.ValueType type) {
+        return type == ModbusConstants.ValueType.FLOAT32 || type == ModbusConstants.ValueType.FLOAT32_SWAP;
+    }
+
+    private static boolean isUnsigned64(ModbusConstants.ValueType type) {
+        return type == ModbusConstants.ValueType.UINT64 || type == ModbusConstants.ValueType.UINT64_SWAP;
+    }
+
     /**
      * Read data from registers and convert the result to StringType
      * Strings should start the the first byte of a register, but could
@@ -241,25 +335,30 @@ public class ModbusBitUtilities {
         if (length < 0) {
             throw new IllegalArgumentException("Negative string length is not supported");
         }
-        byte[] buff = new byte[length];
-
-        int src = index;
-        int dest;
-        for (dest = 0; dest < length; dest++) {
-
-            byte chr;
-            if (dest % 2 == 0) {
-                chr = (byte) ((registers.getRegister(src).getValue() >> 8));
-            } else {
-                chr = (byte) (registers.getRegister(src).getValue() & 0xff);
-                src++;
-            }
-            if (chr == 0) {
-                break;
-            }
-            buff[dest] = chr;
+        // Find the NUL byte first, so that the buffer is no larger than the string. The buffer itself is needed
+        // since String decodes from a byte array.
+        int end = 0;
+        while (end < length && byteOfRegisters(registers, index, end) != 0) {
+            end++;
+        }
+        byte[] buff = new byte[end];
+        for (int i = 0; i < end; i++) {
+            buff[i] = byteOfRegisters(registers, index, i);
         }
-        return new StringType(new String(buff, 0, dest, charset));
+        return new StringType(new String(buff, charset));
+    }
+
+    /**
+     * Get single byte of registers, high byte of each register first
+     *
+     * @param registers list of registers
+     * @param index zero based index of the first register
+     * @param offset zero based byte offset from the first register
+     * @return the byte
+     */
+    private static byte byteOfRegisters(ModbusRegisterArray registers, int index, int offset) {
+        int value = registers.getRegister(index + offset / 2).getValue();
+        return (byte) (offset % 2 == 0 ? value >> 8 : value & 0xff);
     }
 
     /**
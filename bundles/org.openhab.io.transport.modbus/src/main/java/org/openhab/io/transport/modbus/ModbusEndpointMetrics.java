@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Metrics of the task queue of single {@link ModbusSlaveEndpoint}
+ *
+ * @author agent - Initial contribution
+ *
+ * @see ModbusManager#getEndpointMetrics()
+ */
+@NonNullByDefault
+public interface ModbusEndpointMetrics {
+
+    /**
+     * Get number of tasks currently waiting for execution
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth();
+
+    /**
+     * Get number of executed tasks
+     *
+     * @return number of executed tasks
+     */
+    public long getExecutedTasks();
+
+    /**
+     * Get number of polls that were skipped since they were stale (waited longer than their poll period) or since the
+     * same poll was already waiting in the queue
+     *
+     * @return number of skipped polls
+     */
+    public long getSkippedPolls();
+
+    /**
+     * Get average time the executed tasks waited in the queue
+     *
+     * @return average wait time in milliseconds
+     */
+    public double getAverageWaitMillis();
+
+    /**
+     * Get maximum time an executed task waited in the queue
+     *
+     * @return maximum wait time in milliseconds
+     */
+    public double getMaxWaitMillis();
+
+    /**
+     * Get average execution time of the executed tasks
+     *
+     * @return average execution time in milliseconds
+     */
+    public double getAverageExecutionMillis();
+
+}
@@ -12,6 +12,8 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 
@@ -104,4 +106,15 @@ public interface ModbusManager {
      */
     public Set<PollTask> getRegisteredRegularPolls();
 
+    /**
+     * Get metrics of the per-endpoint task queues
+     *
+     * Metrics are available only when the tasks are executed using per-endpoint queues.
+     *
+     * @return metrics of each endpoint with queued or executed tasks
+     */
+    public default Map<ModbusSlaveEndpoint, ModbusEndpointMetrics> getEndpointMetrics() {
+        return Collections.emptyMap();
+    }
+
 }
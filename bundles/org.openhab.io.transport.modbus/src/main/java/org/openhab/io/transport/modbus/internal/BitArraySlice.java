@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BitArray;
+
+/**
+ * BitArray implementation which is a view to a continuous part of another bit array
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class BitArraySlice implements BitArray {
+
+    private BitArray wrapped;
+    private int offset;
+    private int length;
+
+    /**
+     * Construct view of the wrapped bits.
+     *
+     * In case the wrapped array is too short, the view is truncated to the available bits.
+     *
+     * @param wrapped bits to wrap
+     * @param offset index of the wrapped bit corresponding to index 0 of this view
+     * @param length number of bits in this view
+     */
+    public BitArraySlice(BitArray wrapped, int offset, int length) {
+        this.wrapped = wrapped;
+        this.offset = offset;
+        this.length = Math.max(0, Math.min(length, wrapped.size() - offset));
+    }
+
+    @Override
+    public boolean getBit(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return wrapped.getBit(offset + index);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("BitArraySlice(bits=").append(length == 0 ? "<empty>" : toBinaryString()).append(")")
+                .toString();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return sizeAndValuesEquals(obj);
+    }
+
+}
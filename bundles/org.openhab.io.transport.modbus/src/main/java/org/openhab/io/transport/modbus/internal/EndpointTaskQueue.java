@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of tasks of single endpoint.
+ *
+ * At most one task of the endpoint is executed at a time, and at most one thread of the executor is occupied by this
+ * queue. This ensures that a slow endpoint cannot starve the other endpoints sharing the same executor. To be fair
+ * with other endpoints, the queue gives up the thread after executing {@link #MAX_TASKS_PER_TURN} tasks.
+ *
+ * Writes are always executed before polls. Polls which waited longer than their maximum wait time are skipped, as are
+ * polls that are submitted while the same poll is still waiting in the queue.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointTaskQueue implements ModbusEndpointMetrics {
+
+    /**
+     * Maximum number of tasks executed before the thread is given to other endpoints
+     */
+    static final int MAX_TASKS_PER_TURN = 10;
+
+    private static class QueuedTask {
+        private final Runnable action;
+        private final long enqueuedNanos = System.nanoTime();
+        private final long deadlineNanos;
+        private final @Nullable Object key;
+        private final @Nullable Runnable onDrop;
+
+        QueuedTask(Runnable action, long maxWaitMillis, @Nullable Object key, @Nullable Runnable onDrop) {
+            this.action = action;
+            this.deadlineNanos = maxWaitMillis > 0 ? enqueuedNanos + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis)
+                    : Long.MAX_VALUE;
+            this.key = key;
+            this.onDrop = onDrop;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointTaskQueue.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final Queue<QueuedTask> writes = new ConcurrentLinkedQueue<>();
+    private final Queue<QueuedTask> polls = new ConcurrentLinkedQueue<>();
+    private final Set<Object> queuedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong executedTasks = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalExecutionNanos = new AtomicLong();
+
+    public EndpointTaskQueue(ModbusSlaveEndpoint endpoint, Executor executor) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+    }
+
+    /**
+     * Submit write to be executed
+     *
+     * @param action write to execute
+     * @param onDrop called instead of the action when the write is removed by {@link #clear()}. Use null for no
+     *            such notification.
+     */
+    public void submitWrite(Runnable action, @Nullable Runnable onDrop) {
+        queueDepth.incrementAndGet();
+        writes.add(new QueuedTask(action, 0, null, onDrop));
+        scheduleTurn();
+    }
+
+    /**
+     * Submit poll to be executed
+     *
+     * @param action poll to execute
+     * @param maxWaitMillis maximum time the poll can wait in the queue before it is considered stale and skipped. Zero
+     *            or negative value means no limit.
+     * @param key key identifying the poll. If a poll with the same key is already waiting in the queue, the poll is
+     *            not queued again. Use null for no such check.
+     * @param onDrop called instead of the action when the poll is removed by {@link #clear()}. Use null for no such
+     *            notification.
+     * @return whether the poll was queued
+     */
+    public boolean submitPoll(Runnable action, long maxWaitMillis, @Nullable Object key, @Nullable Runnable onDrop) {
+        if (key != null && !queuedKeys.add(key)) {
+            skippedPolls.incrementAndGet();
+            logger.debug("Poll {} of endpoint {} is already queued, not queueing again", key, endpoint);
+            return false;
+        }
+        queueDepth.incrementAndGet();
+        polls.add(new QueuedTask(action, maxWaitMillis, key, onDrop));
+        scheduleTurn();
+        return true;
+    }
+
+    /**
+     * Remove all queued tasks without executing them. The drop notification of each removed task is called in the
+     * calling thread.
+     */
+    public void clear() {
+        QueuedTask task;
+        while ((task = next()) != null) {
+            Runnable onDrop = task.onDrop;
+            if (onDrop == null) {
+                continue;
+            }
+            try {
+                onDrop.run();
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error notifying dropped task of endpoint {}", endpoint, e);
+            }
+        }
+    }
+
+    private void scheduleTurn() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::executeTurn);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                logger.warn("Could not execute tasks of endpoint {}: {}", endpoint, e.getMessage());
+            }
+        }
+    }
+
+    private void executeTurn() {
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+                QueuedTask task = next();
+                if (task == null) {
+                    break;
+                }
+                execute(task);
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        if (queueDepth.get() > 0) {
+            // more work, continue after tasks of other endpoints
+            scheduleTurn();
+        }
+    }
+
+    private @Nullable QueuedTask next() {
+        QueuedTask task = writes.poll();
+        if (task == null) {
+            task = polls.poll();
+        }
+        if (task != null) {
+            queueDepth.decrementAndGet();
+            Object key = task.key;
+            if (key != null) {
+                queuedKeys.remove(key);
+            }
+        }
+        return task;
+    }
+
+    private void execute(QueuedTask task) {
+        long start = System.nanoTime();
+        if (start > task.deadlineNanos) {
+            skippedPolls.incrementAndGet();
+            logger.debug("Skipping stale poll of endpoint {}, waited {} ms in queue", endpoint,
+                    TimeUnit.NANOSECONDS.toMillis(start - task.enqueuedNanos));
+            return;
+        }
+        long waitNanos = start - task.enqueuedNanos;
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        try {
+            task.action.run();
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error executing task of endpoint {}", endpoint, e);
+        } finally {
+            totalExecutionNanos.addAndGet(System.nanoTime() - start);
+            executedTasks.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public long getExecutedTasks() {
+        return executedTasks.get();
+    }
+
+    @Override
+    public long getSkippedPolls() {
+        return skippedPolls.get();
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long executed = executedTasks.get();
+        return executed == 0 ? 0 : toMillis(totalWaitNanos.get()) / executed;
+    }
+
+    @Override
+    public double getMaxWaitMillis() {
+        return toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public double getAverageExecutionMillis() {
+        long executed = executedTasks.get();
+        return executed == 0 ? 0 : toMillis(totalExecutionNanos.get()) / executed;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "EndpointTaskQueue(endpoint=%s, queueDepth=%d, executed=%d, skippedPolls=%d, avgWait=%.1fms, maxWait=%.1fms, avgExecution=%.1fms)",
+                endpoint, getQueueDepth(), getExecutedTasks(), getSkippedPolls(), getAverageWaitMillis(),
+                getMaxWaitMillis(), getAverageExecutionMillis());
+    }
+}
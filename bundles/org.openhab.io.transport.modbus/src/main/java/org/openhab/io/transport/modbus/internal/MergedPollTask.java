@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PollTask} reading a register (or bit) range which covers the ranges of several original poll tasks.
+ *
+ * The response is split and passed to the callbacks of the original poll tasks, each receiving only the data of its
+ * own request. Errors are passed to all of the original callbacks.
+ *
+ * Two merged poll tasks are equal only if they are the same instance.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MergedPollTask implements PollTask {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(MergedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final ModbusReadRequestBlueprint request;
+    private final List<PollTask> tasks;
+    private final ModbusReadCallback callback = new FanOutCallback();
+
+    /**
+     * Construct merged poll task
+     *
+     * @param endpoint endpoint shared by all the original tasks
+     * @param request request covering the requests of all the original tasks
+     * @param tasks original poll tasks
+     */
+    public MergedPollTask(ModbusSlaveEndpoint endpoint, ModbusReadRequestBlueprint request, List<PollTask> tasks) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusReadCallback getCallback() {
+        return callback;
+    }
+
+    /**
+     * Get the original poll tasks served by this task
+     *
+     * @return original poll tasks
+     */
+    public List<PollTask> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("tasks", tasks.size()).toString();
+    }
+
+    private class FanOutCallback implements ModbusReadCallback {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint mergedRequest, ModbusRegisterArray registers) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback taskCallback = task.getCallback();
+                if (taskCallback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint taskRequest = task.getRequest();
+                int offset = taskRequest.getReference() - mergedRequest.getReference();
+                try {
+                    taskCallback.onRegisters(taskRequest,
+                            new RegisterArraySlice(registers, offset, taskRequest.getDataLength()));
+                } catch (RuntimeException e) {
+                    logCallbackError(task, e);
+                }
+            }
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint mergedRequest, BitArray bits) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback taskCallback = task.getCallback();
+                if (taskCallback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint taskRequest = task.getRequest();
+                int offset = taskRequest.getReference() - mergedRequest.getReference();
+                try {
+                    taskCallback.onBits(taskRequest, new BitArraySlice(bits, offset, taskRequest.getDataLength()));
+                } catch (RuntimeException e) {
+                    logCallbackError(task, e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint mergedRequest, Exception error) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback taskCallback = task.getCallback();
+                if (taskCallback == null) {
+                    continue;
+                }
+                try {
+                    taskCallback.onError(task.getRequest(), error);
+                } catch (RuntimeException e) {
+                    logCallbackError(task, e);
+                }
+            }
+        }
+
+        private void logCallbackError(PollTask task, @Nullable RuntimeException e) {
+            logger.error("Unhandled exception in callback of poll task {} (part of merged poll {})", task,
+                    MergedPollTask.this, e);
+        }
+    }
+}
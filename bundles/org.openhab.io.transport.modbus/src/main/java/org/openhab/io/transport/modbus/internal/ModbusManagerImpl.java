@@ -14,12 +14,16 @@ package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -28,6 +32,8 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.IIOException;
 
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.SwallowedExceptionListener;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
@@ -37,6 +43,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.ModbusCallback;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
@@ -54,6 +61,8 @@ import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusTcpPipeline.ConnectionProvider;
+import org.openhab.io.transport.modbus.internal.PollTaskPlanner.MergeKey;
 import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -91,6 +100,48 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
+    /**
+     * Key identifying regular polls which are planned and scheduled together when poll coalescing is enabled
+     */
+    private static class PollGroupKey {
+        private final MergeKey mergeKey;
+        private final long pollPeriodMillis;
+
+        PollGroupKey(PollTask task, long pollPeriodMillis) {
+            this.mergeKey = new MergeKey(task);
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(13, 59).append(mergeKey).append(pollPeriodMillis).toHashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == null) {
+                return false;
+            }
+            if (obj == this) {
+                return true;
+            }
+            if (obj.getClass() != getClass()) {
+                return false;
+            }
+            PollGroupKey rhs = (PollGroupKey) obj;
+            return new EqualsBuilder().append(mergeKey, rhs.mergeKey).append(pollPeriodMillis, rhs.pollPeriodMillis)
+                    .isEquals();
+        }
+    }
+
+    /**
+     * Regular polls sharing the same {@link PollGroupKey}, and the (possibly merged) polls scheduled for them
+     */
+    private static class PollGroup {
+        private final Set<PollTask> tasks = new LinkedHashSet<>();
+        private final Map<PollTask, ScheduledFuture<?>> plannedPolls = new HashMap<>();
+    }
+
     @FunctionalInterface
     private interface ModbusOperation<T> {
 
@@ -249,6 +300,17 @@ public class ModbusManagerImpl implements ModbusManager {
     private static final long WARN_QUEUE_SIZE = 500;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
+    /**
+     * Configuration parameter enabling merging of regular polls with overlapping or adjacent ranges, see
+     * {@link PollTaskPlanner}
+     */
+    private static final String CONFIG_COALESCE_POLLS = "coalescePolls";
+
+    /**
+     * Configuration parameter enabling execution of tasks using per-endpoint queues, see {@link EndpointTaskQueue}
+     */
+    private static final String CONFIG_ENDPOINT_QUEUES = "endpointQueues";
+
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
 
@@ -268,6 +330,45 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Whether regular polls with same endpoint, unit id, function code and poll period are merged
+     */
+    private volatile boolean coalescePolls;
+    /**
+     * Groups of regular polls registered while poll coalescing is enabled. Guarded by this.
+     */
+    private final Map<PollGroupKey, PollGroup> pollGroups = new HashMap<>();
+    private final Map<PollTask, PollGroupKey> coalescedPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Currently scheduled polls planned by {@link PollTaskPlanner}
+     */
+    private final Set<PollTask> activePlannedPolls = ConcurrentHashMap.newKeySet();
+    /**
+     * Whether tasks are executed using per-endpoint queues
+     */
+    private volatile boolean endpointQueues;
+    private final Map<ModbusSlaveEndpoint, EndpointTaskQueue> endpointTaskQueues = new ConcurrentHashMap<>();
+    /**
+     * Pipelines of TCP endpoints configured with more than one transaction in flight
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusTcpPipeline> tcpPipelines = new ConcurrentHashMap<>();
+    private final ConnectionProvider pipelineConnectionProvider = new ConnectionProvider() {
+
+        @Override
+        public Optional<ModbusSlaveConnection> borrow(ModbusTCPSlaveEndpoint endpoint) {
+            return borrowConnection(endpoint);
+        }
+
+        @Override
+        public void release(ModbusTCPSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
+            returnConnection(endpoint, connection);
+        }
+
+        @Override
+        public void invalidate(ModbusTCPSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
+            ModbusManagerImpl.this.invalidate(endpoint, connection);
+        }
+    };
     /**
      * Executor for requests
      */
@@ -468,7 +569,7 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
-        if (!this.scheduledPollTasks.containsKey(task)) {
+        if (!this.scheduledPollTasks.containsKey(task) && !this.activePlannedPolls.contains(task)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
             throw new PollTaskUnregistered(msg);
@@ -700,7 +801,7 @@ public class ModbusManagerImpl implements ModbusManager {
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
+            dispatchPoll(task, true, 0);
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
@@ -716,23 +817,67 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
-            ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                long started = System.currentTimeMillis();
-                logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                        started);
-                executeOperation(task, false, pollOperation);
-                long finished = System.currentTimeMillis();
-                logger.debug(
-                        "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                        pollPeriodMillis, task, finished, started, finished - started);
-            }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
-
-            scheduledPollTasks.put(task, future);
+            if (coalescePolls) {
+                PollGroupKey key = new PollGroupKey(task, pollPeriodMillis);
+                PollGroup group = pollGroups.computeIfAbsent(key, k -> new PollGroup());
+                group.tasks.add(task);
+                coalescedPollTasks.put(task, key);
+                schedulePollGroup(executor, group, pollPeriodMillis, initialDelayMillis);
+            } else {
+                ScheduledFuture<?> future = schedulePoll(executor, task, pollPeriodMillis, initialDelayMillis);
+                scheduledPollTasks.put(task, future);
+            }
             logger.trace("Registered poll task {} with period {} using initial delay {}", task, pollPeriodMillis,
                     initialDelayMillis);
         }
     }
 
+    private ScheduledFuture<?> schedulePoll(ScheduledExecutorService executor, PollTask task, long pollPeriodMillis,
+            long initialDelayMillis) {
+        return executor.scheduleWithFixedDelay(() -> {
+            long started = System.currentTimeMillis();
+            logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
+                    started);
+            dispatchPoll(task, false, pollPeriodMillis);
+            long finished = System.currentTimeMillis();
+            logger.debug(
+                    "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                    pollPeriodMillis, task, finished, started, finished - started);
+        }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * (Re-)plan and (re-)schedule the polls of the poll group. Must be called while holding lock on this.
+     *
+     * Previously scheduled polls of the group are canceled, but not interrupted.
+     */
+    private void schedulePollGroup(ScheduledExecutorService executor, PollGroup group, long pollPeriodMillis,
+            long initialDelayMillis) {
+        cancelPollGroup(group, false);
+        for (PollTask planned : PollTaskPlanner.plan(group.tasks)) {
+            ScheduledFuture<?> future = schedulePoll(executor, planned, pollPeriodMillis, initialDelayMillis);
+            group.plannedPolls.put(planned, future);
+            activePlannedPolls.add(planned);
+            if (planned instanceof MergedPollTask) {
+                logger.debug("Merged {} poll tasks into single poll {}", ((MergedPollTask) planned).getTasks().size(),
+                        planned);
+                for (PollTask task : ((MergedPollTask) planned).getTasks()) {
+                    scheduledPollTasks.put(task, future);
+                }
+            } else {
+                scheduledPollTasks.put(planned, future);
+            }
+        }
+    }
+
+    private void cancelPollGroup(PollGroup group, boolean mayInterruptIfRunning) {
+        group.plannedPolls.forEach((planned, future) -> {
+            activePlannedPolls.remove(planned);
+            future.cancel(mayInterruptIfRunning);
+        });
+        group.plannedPolls.clear();
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public boolean unregisterRegularPoll(PollTask task) {
@@ -756,7 +901,23 @@ public class ModbusManagerImpl implements ModbusManager {
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            @Nullable
+            PollGroupKey groupKey = coalescedPollTasks.remove(task);
+            if (groupKey == null) {
+                future.cancel(true);
+            } else {
+                PollGroup group = pollGroups.get(groupKey);
+                if (group != null) {
+                    group.tasks.remove(task);
+                    if (group.tasks.isEmpty()) {
+                        cancelPollGroup(group, true);
+                        pollGroups.remove(groupKey);
+                    } else {
+                        // re-plan the remaining tasks, continuing with the regular poll period
+                        schedulePollGroup(executor, group, groupKey.pollPeriodMillis, groupKey.pollPeriodMillis);
+                    }
+                }
+            }
 
             logger.info("Poll task {} canceled", task);
 
@@ -785,11 +946,159 @@ public class ModbusManagerImpl implements ModbusManager {
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
+            dispatchWrite(task);
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
 
+    /**
+     * Execute the poll right away, or queue it to the endpoint queue when per-endpoint queues are enabled.
+     *
+     * @param task poll task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param maxWaitMillis maximum time the poll can wait in the endpoint queue. Zero for no limit.
+     */
+    private void dispatchPoll(PollTask task, boolean oneOffTask, long maxWaitMillis) {
+        EndpointTaskQueue queue = getEndpointTaskQueue(task.getEndpoint());
+        if (queue == null) {
+            executePoll(task, oneOffTask);
+        } else {
+            // Regular polls are not queued twice, one-off polls always are. One-off polls are failed when dropped.
+            queue.submitPoll(() -> executePoll(task, oneOffTask), maxWaitMillis, oneOffTask ? null : task,
+                    oneOffTask ? () -> invokeCallbackOfDroppedTask(task) : null);
+        }
+    }
+
+    /**
+     * Execute the poll, pipelined with other polls of the same endpoint when the endpoint is configured to allow
+     * more than one transaction in flight.
+     *
+     * Pipelined polls are not retried. On connection and I/O errors, the poll is executed once more using the regular
+     * retry mechanism. Other errors, e.g. exception responses of the slave, are passed to the callback right away.
+     *
+     * The callback is invoked using the executor, so that the thread leading the pipeline is not held up by it.
+     *
+     * @param task poll task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     */
+    private void executePoll(PollTask task, boolean oneOffTask) {
+        ModbusTcpPipeline pipeline = getTcpPipeline(task.getEndpoint());
+        if (pipeline == null) {
+            executeOperation(task, oneOffTask, pollOperation);
+            return;
+        }
+        ModbusReadRequestBlueprint request = task.getRequest();
+        ModbusResponse response;
+        try {
+            if (!oneOffTask) {
+                verifyTaskIsRegistered(task);
+            }
+            response = pipeline.execute(request);
+        } catch (PollTaskUnregistered e) {
+            logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {}", e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            logger.warn("Poll task was canceled -- not executing/proceeding with the poll: {}", e.getMessage());
+            return;
+        } catch (ModbusConnectionException | ModbusIOException e) {
+            logger.debug("Pipelined poll {} failed ({} {}), executing it without pipelining", request,
+                    e.getClass().getName(), e.getMessage());
+            executeOperation(task, oneOffTask, pollOperation);
+            return;
+        } catch (ModbusSlaveException e) {
+            logger.debug("Pipelined poll {} failed with exception response: {}", request, e.getMessage());
+            invokePipelinedPollCallback(task, null, new ModbusSlaveErrorResponseExceptionImpl(e));
+            return;
+        } catch (Exception e) {
+            logger.warn("Pipelined poll {} failed with unexpected error: {} {}", request, e.getClass().getName(),
+                    e.getMessage());
+            invokePipelinedPollCallback(task, null, e);
+            return;
+        }
+        invokePipelinedPollCallback(task, response, null);
+    }
+
+    private void invokePipelinedPollCallback(PollTask task, @Nullable ModbusResponse response,
+            @Nullable Exception error) {
+        ModbusReadCallback callback = task.getCallback();
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        if (callback == null || executor == null) {
+            return;
+        }
+        ModbusReadRequestBlueprint request = task.getRequest();
+        try {
+            executor.execute(() -> {
+                if (response != null) {
+                    ModbusLibraryWrapper.invokeCallbackWithResponse(request, callback, response);
+                } else if (error != null) {
+                    invokeCallbackWithError(request, callback, error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Manager has been shut down, not invoking callback of poll {}", request);
+        }
+    }
+
+    private @Nullable ModbusTcpPipeline getTcpPipeline(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint) || connectionFactory == null) {
+            return null;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        int maxInFlightTransactions = configuration == null ? 1 : configuration.getMaxInFlightTransactions();
+        if (maxInFlightTransactions <= 1) {
+            tcpPipelines.remove(endpoint);
+            return null;
+        }
+        ModbusTcpPipeline pipeline = tcpPipelines.get(endpoint);
+        if (pipeline != null && pipeline.getMaxInFlightTransactions() == maxInFlightTransactions) {
+            return pipeline;
+        }
+        // Pipeline is re-created when the configuration changes
+        return tcpPipelines.compute(endpoint,
+                (e, existing) -> existing != null && existing.getMaxInFlightTransactions() == maxInFlightTransactions
+                        ? existing
+                        : new ModbusTcpPipeline((ModbusTCPSlaveEndpoint) e, maxInFlightTransactions,
+                                pipelineConnectionProvider));
+    }
+
+    /**
+     * Execute the write right away, or queue it to the endpoint queue when per-endpoint queues are enabled.
+     *
+     * @param task write task to execute
+     */
+    private void dispatchWrite(WriteTask task) {
+        EndpointTaskQueue queue = getEndpointTaskQueue(task.getEndpoint());
+        if (queue == null) {
+            executeOperation(task, true, writeOperation);
+        } else {
+            queue.submitWrite(() -> executeOperation(task, true, writeOperation),
+                    () -> invokeCallbackOfDroppedTask(task));
+        }
+    }
+
+    /**
+     * Fail the task which was removed from the endpoint queue before it was executed, e.g. due to deactivation.
+     *
+     * @param task task that was not executed
+     */
+    private void invokeCallbackOfDroppedTask(TaskWithEndpoint<? extends ModbusRequestBlueprint, ?> task) {
+        ModbusCallback callback = task.getCallback();
+        if (callback != null) {
+            logger.debug("Task {} was dropped from the queue of endpoint {} without executing it", task,
+                    task.getEndpoint());
+            invokeCallbackWithError(task.getRequest(), callback, new ModbusConnectionException(task.getEndpoint()));
+        }
+    }
+
+    private @Nullable EndpointTaskQueue getEndpointTaskQueue(ModbusSlaveEndpoint endpoint) {
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        if (!endpointQueues || executor == null) {
+            return null;
+        }
+        return endpointTaskQueues.computeIfAbsent(endpoint, e -> new EndpointTaskQueue(e, executor));
+    }
+
     @Override
     public void setEndpointPoolConfiguration(ModbusSlaveEndpoint endpoint,
             @Nullable EndpointPoolConfiguration configuration) {
@@ -821,10 +1130,23 @@ public class ModbusManagerImpl implements ModbusManager {
         return this.scheduledPollTasks.keySet();
     }
 
+    @Override
+    public Map<ModbusSlaveEndpoint, ModbusEndpointMetrics> getEndpointMetrics() {
+        return Collections.<ModbusSlaveEndpoint, ModbusEndpointMetrics> unmodifiableMap(endpointTaskQueues);
+    }
+
     @Activate
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            coalescePolls = Boolean.parseBoolean(String.valueOf(configProperties.get(CONFIG_COALESCE_POLLS)));
+            if (coalescePolls) {
+                logger.info("Merging of regular polls with overlapping or adjacent ranges enabled");
+            }
+            endpointQueues = Boolean.parseBoolean(String.valueOf(configProperties.get(CONFIG_ENDPOINT_QUEUES)));
+            if (endpointQueues) {
+                logger.info("Execution of tasks using per-endpoint queues enabled");
+            }
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -860,6 +1182,10 @@ public class ModbusManagerImpl implements ModbusManager {
                 monitorFuture.cancel(true);
                 monitorFuture = null;
             }
+            endpointTaskQueues.values().forEach(EndpointTaskQueue::clear);
+            endpointTaskQueues.clear();
+            tcpPipelines.values().forEach(ModbusTcpPipeline::clear);
+            tcpPipelines.clear();
             // Note that it is not allowed to shutdown the executor, since they will be reused when
             // when pool is received from ThreadPoolManager is called
             scheduledThreadPoolExecutor = null;
@@ -898,6 +1224,13 @@ public class ModbusManagerImpl implements ModbusManager {
                             executor.getQueue().size());
                 }
             }
+            this.endpointTaskQueues.forEach((endpoint, queue) -> {
+                pollMonitorLogger.trace("POLL MONITOR: {}", queue);
+                if (queue.getQueueDepth() >= WARN_QUEUE_SIZE) {
+                    pollMonitorLogger.warn("Many ({}) tasks queued for endpoint {}! The endpoint might be too slow.",
+                            queue.getQueueDepth(), endpoint);
+                }
+            });
 
             pollMonitorLogger.trace("</POLL MONITOR>");
         }
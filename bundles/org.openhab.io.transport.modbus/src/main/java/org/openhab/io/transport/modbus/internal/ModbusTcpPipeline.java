@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.io.ModbusTransport;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+import net.wimpi.modbus.net.TCPMasterConnection;
+
+/**
+ * Pipeline for executing several read transactions on single Modbus/TCP connection without waiting for the response
+ * before sending the next request.
+ *
+ * Threads wanting to execute a request add it to the pipeline. One of the threads acts as a leader: it borrows the
+ * connection, writes up to <code>maxInFlightTransactions</code> pending requests, and then reads the responses,
+ * matching them to the requests using the transaction ID in the MBAP header. Other threads wait for their response
+ * to be completed by the leader. Responses with unknown transaction ID are ignored. A response with the unit ID or
+ * function code not matching the request fails the request with {@link ModbusIOException}.
+ *
+ * The pipeline does not retry failed requests. Requests failing with I/O error fail the whole batch, and the
+ * connection is invalidated.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTcpPipeline {
+
+    /**
+     * Connection source for the pipeline
+     */
+    public interface ConnectionProvider {
+        /**
+         * Borrow connection to the endpoint
+         *
+         * @param endpoint endpoint to connect to
+         * @return connected connection, or empty optional if connection cannot be established
+         */
+        Optional<ModbusSlaveConnection> borrow(ModbusTCPSlaveEndpoint endpoint);
+
+        /**
+         * Return connection after successful use
+         */
+        void release(ModbusTCPSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection);
+
+        /**
+         * Invalidate connection after failed use
+         */
+        void invalidate(ModbusTCPSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection);
+    }
+
+    /**
+     * Largest transaction ID allowed in the MBAP header
+     */
+    private static final int MAX_TRANSACTION_ID = 0xFFFF;
+
+    /**
+     * How often waiting threads check whether they should take over as the leader
+     */
+    private static final long FOLLOWER_POLL_MILLIS = 10;
+
+    private static class PendingRequest {
+        private final ModbusReadRequestBlueprint request;
+        private final ModbusRequest libRequest;
+        private final CompletableFuture<ModbusResponse> response = new CompletableFuture<>();
+
+        PendingRequest(ModbusReadRequestBlueprint request) {
+            this.request = request;
+            this.libRequest = ModbusLibraryWrapper.createRequest(request);
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusTcpPipeline.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final ConnectionProvider connectionProvider;
+    private final int maxInFlightTransactions;
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock leaderLock = new ReentrantLock();
+    /**
+     * Last used transaction ID. Guarded by leaderLock.
+     */
+    private int transactionId;
+
+    public ModbusTcpPipeline(ModbusTCPSlaveEndpoint endpoint, int maxInFlightTransactions,
+            ConnectionProvider connectionProvider) {
+        if (maxInFlightTransactions <= 0) {
+            throw new IllegalArgumentException("maxInFlightTransactions should be positive");
+        }
+        this.endpoint = endpoint;
+        this.maxInFlightTransactions = maxInFlightTransactions;
+        this.connectionProvider = connectionProvider;
+    }
+
+    public int getMaxInFlightTransactions() {
+        return maxInFlightTransactions;
+    }
+
+    /**
+     * Execute read request, possibly pipelined with requests of other threads
+     *
+     * @param request request to execute
+     * @return response to the request
+     * @throws ModbusSlaveException when slave responds with exception response
+     * @throws ModbusConnectionException when connection cannot be established
+     * @throws ModbusIOException on I/O errors, and when the unit ID or function code of the response does not match
+     *             the request
+     * @throws InterruptedException when the thread is interrupted while waiting for the response. The request is not
+     *             sent when it has not been written yet.
+     */
+    public ModbusResponse execute(ModbusReadRequestBlueprint request) throws Exception {
+        PendingRequest pendingRequest = new PendingRequest(request);
+        pending.add(pendingRequest);
+        while (!pendingRequest.response.isDone()) {
+            if (leaderLock.tryLock()) {
+                try {
+                    while (!pendingRequest.response.isDone()) {
+                        executeBatch();
+                    }
+                } finally {
+                    leaderLock.unlock();
+                }
+            } else {
+                try {
+                    pendingRequest.response.get(FOLLOWER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // Leader still busy, or the response failed. Either way, re-check
+                } catch (InterruptedException e) {
+                    // Nobody waits for the response anymore, make the leader skip the request if still queued
+                    pending.remove(pendingRequest);
+                    pendingRequest.response.cancel(false);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return pendingRequest.response.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fail all pending requests, e.g. when the manager is deactivated
+     */
+    public void clear() {
+        PendingRequest pendingRequest;
+        while ((pendingRequest = pending.poll()) != null) {
+            pendingRequest.response.completeExceptionally(new ModbusConnectionException(endpoint));
+        }
+    }
+
+    private void executeBatch() {
+        List<PendingRequest> batch = new ArrayList<>(maxInFlightTransactions);
+        PendingRequest next;
+        while (batch.size() < maxInFlightTransactions && (next = pending.poll()) != null) {
+            // skip requests cancelled by their interrupted caller
+            if (!next.response.isDone()) {
+                batch.add(next);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Optional<ModbusSlaveConnection> connection = connectionProvider.borrow(endpoint);
+        if (!connection.isPresent()) {
+            logger.warn("Could not connect to endpoint {} -- aborting {} pipelined requests", endpoint, batch.size());
+            failAll(batch, new ModbusConnectionException(endpoint));
+            return;
+        }
+
+        @Nullable
+        Exception error = null;
+        try {
+            transact(connection.get(), batch);
+        } catch (ModbusException | RuntimeException e) {
+            error = e;
+            logger.debug("Pipelined transactions to endpoint {} failed, reseting the connection: {} {}", endpoint,
+                    e.getClass().getName(), e.getMessage());
+        } finally {
+            if (error == null) {
+                connectionProvider.release(endpoint, connection);
+            } else {
+                connectionProvider.invalidate(endpoint, connection);
+                failAll(batch, error);
+            }
+        }
+    }
+
+    private void transact(ModbusSlaveConnection connection, List<PendingRequest> batch) throws ModbusException {
+        ModbusTransport transport = ((TCPMasterConnection) connection).getModbusTransport();
+        Map<Integer, PendingRequest> inFlight = new HashMap<>();
+        for (PendingRequest pendingRequest : batch) {
+            ModbusRequest libRequest = pendingRequest.libRequest;
+            int id = nextTransactionId();
+            libRequest.setTransactionID(id);
+            inFlight.put(id, pendingRequest);
+            logger.trace("Writing pipelined request (FC={}, transaction ID={}): {}",
+                    pendingRequest.request.getFunctionCode(), id, libRequest.getHexMessage());
+            transport.writeMessage(libRequest);
+        }
+        while (!inFlight.isEmpty()) {
+            ModbusResponse response = transport.readResponse();
+            PendingRequest pendingRequest = inFlight.remove(response.getTransactionID());
+            if (pendingRequest == null) {
+                logger.debug("Ignoring pipelined response with unexpected transaction ID {} from endpoint {}",
+                        response.getTransactionID(), endpoint);
+                continue;
+            }
+            logger.trace("Response for pipelined request (FC={}, transaction ID={}): {}",
+                    response.getFunctionCode(), response.getTransactionID(), response.getHexMessage());
+            ModbusRequest libRequest = pendingRequest.libRequest;
+            // exception responses have the highest bit of the function code set
+            int functionCode = response.getFunctionCode() & ~Modbus.EXCEPTION_OFFSET;
+            if (response.getUnitID() != libRequest.getUnitID() || functionCode != libRequest.getFunctionCode()) {
+                logger.debug(
+                        "Pipelined response (unit ID={}, FC={}) does not match request (unit ID={}, FC={}) from endpoint {}",
+                        response.getUnitID(), functionCode, libRequest.getUnitID(), libRequest.getFunctionCode(),
+                        endpoint);
+                pendingRequest.response.completeExceptionally(new ModbusIOException(String.format(
+                        "Response (unit ID=%d, FC=%d) does not match request (unit ID=%d, FC=%d)",
+                        response.getUnitID(), functionCode, libRequest.getUnitID(), libRequest.getFunctionCode())));
+            } else if (response instanceof ExceptionResponse) {
+                pendingRequest.response.completeExceptionally(
+                        new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode()));
+            } else {
+                pendingRequest.response.complete(response);
+            }
+        }
+    }
+
+    private int nextTransactionId() {
+        transactionId = transactionId >= MAX_TRANSACTION_ID ? 1 : transactionId + 1;
+        return transactionId;
+    }
+
+    private static void failAll(List<PendingRequest> batch, Exception error) {
+        // Already completed requests are not affected
+        batch.forEach(pendingRequest -> pendingRequest.response.completeExceptionally(error));
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Planner merging poll tasks with overlapping or adjacent ranges into as few requests as possible.
+ *
+ * Only poll tasks with same endpoint, unit ID, function code and maximum tries are merged. Ranges which are not
+ * overlapping or adjacent are never merged, since reading registers in between might not be supported by the slave.
+ * Merged requests never exceed the maximum length allowed by the Modbus protocol.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PollTaskPlanner {
+
+    /**
+     * Maximum number of registers in single read request (function codes 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_REQUEST = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in single read request (function codes 1 and 2)
+     */
+    public static final int MAX_BITS_PER_REQUEST = 2000;
+
+    /**
+     * Key identifying poll tasks that can be merged together
+     */
+    static class MergeKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final ModbusReadFunctionCode functionCode;
+        private final int maxTries;
+
+        MergeKey(PollTask task) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            this.endpoint = task.getEndpoint();
+            this.unitId = request.getUnitID();
+            this.functionCode = request.getFunctionCode();
+            this.maxTries = request.getMaxTries();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(37, 11).append(endpoint).append(unitId).append(functionCode).append(maxTries)
+                    .toHashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == null) {
+                return false;
+            }
+            if (obj == this) {
+                return true;
+            }
+            if (obj.getClass() != getClass()) {
+                return false;
+            }
+            MergeKey rhs = (MergeKey) obj;
+            return new EqualsBuilder().append(endpoint, rhs.endpoint).append(unitId, rhs.unitId)
+                    .append(functionCode, rhs.functionCode).append(maxTries, rhs.maxTries).isEquals();
+        }
+    }
+
+    /**
+     * Returns the maximum number of registers or bits that can be read with single request of the given function
+     * code
+     *
+     * @param functionCode read function code
+     * @return maximum data length
+     */
+    public static int getMaxDataLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_REQUEST;
+            case READ_MULTIPLE_REGISTERS:
+            case READ_INPUT_REGISTERS:
+                return MAX_REGISTERS_PER_REQUEST;
+            default:
+                throw new IllegalArgumentException("Unknown function code " + functionCode);
+        }
+    }
+
+    /**
+     * Plan the poll tasks to execute for the given poll tasks.
+     *
+     * Poll tasks that cannot be merged with any other task are returned as is. Other tasks are replaced by
+     * {@link MergedPollTask}s.
+     *
+     * @param tasks poll tasks to plan
+     * @return poll tasks to execute, covering all the given tasks
+     */
+    public static List<PollTask> plan(Collection<PollTask> tasks) {
+        Map<MergeKey, List<PollTask>> groups = new LinkedHashMap<>();
+        for (PollTask task : tasks) {
+            groups.computeIfAbsent(new MergeKey(task), key -> new ArrayList<>()).add(task);
+        }
+
+        List<PollTask> planned = new ArrayList<>();
+        groups.forEach((key, group) -> planGroup(key, group, planned));
+        return planned;
+    }
+
+    private static void planGroup(MergeKey key, List<PollTask> group, List<PollTask> planned) {
+        int maxLength = getMaxDataLength(key.functionCode);
+        group.sort(Comparator.<PollTask> comparingInt(task -> task.getRequest().getReference())
+                .thenComparingInt(task -> task.getRequest().getDataLength()));
+
+        List<PollTask> block = new ArrayList<>();
+        int blockStart = 0;
+        int blockEnd = 0;
+        for (PollTask task : group) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            int start = request.getReference();
+            int end = start + request.getDataLength();
+            if (!block.isEmpty() && start <= blockEnd && Math.max(end, blockEnd) - blockStart <= maxLength) {
+                // Overlapping or adjacent, and fits into single request
+                block.add(task);
+                blockEnd = Math.max(end, blockEnd);
+                continue;
+            }
+            flushBlock(key, block, blockStart, blockEnd, planned);
+            block = new ArrayList<>();
+            block.add(task);
+            blockStart = start;
+            blockEnd = end;
+        }
+        flushBlock(key, block, blockStart, blockEnd, planned);
+    }
+
+    private static void flushBlock(MergeKey key, List<PollTask> block, int blockStart, int blockEnd,
+            List<PollTask> planned) {
+        if (block.isEmpty()) {
+            return;
+        } else if (block.size() == 1) {
+            planned.add(Objects.requireNonNull(block.get(0)));
+            return;
+        }
+        BasicModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(key.unitId, key.functionCode,
+                blockStart, blockEnd - blockStart, key.maxTries);
+        planned.add(new MergedPollTask(key.endpoint, request, block));
+    }
+}
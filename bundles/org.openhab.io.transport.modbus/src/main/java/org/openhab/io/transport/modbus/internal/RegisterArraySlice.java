@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Implementation of {@link ModbusRegisterArray} which is a view to a continuous part of another register array
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RegisterArraySlice implements ModbusRegisterArray {
+
+    private ModbusRegisterArray wrapped;
+    private int offset;
+    private int length;
+
+    /**
+     * Construct view of the wrapped registers.
+     *
+     * In case the wrapped array is too short, the view is truncated to the available registers.
+     *
+     * @param wrapped registers to wrap
+     * @param offset index of the wrapped register corresponding to index 0 of this view
+     * @param length number of registers in this view
+     */
+    public RegisterArraySlice(ModbusRegisterArray wrapped, int offset, int length) {
+        this.wrapped = wrapped;
+        this.offset = offset;
+        this.length = Math.max(0, Math.min(length, wrapped.size() - offset));
+    }
+
+    @Override
+    public ModbusRegister getRegister(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return wrapped.getRegister(offset + index);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        if (length == 0) {
+            return "RegisterArraySlice(<empty>)";
+        }
+        StringBuffer buffer = new StringBuffer(length * 2).append("RegisterArraySlice(");
+        return appendHexString(buffer).append(')').toString();
+    }
+
+}
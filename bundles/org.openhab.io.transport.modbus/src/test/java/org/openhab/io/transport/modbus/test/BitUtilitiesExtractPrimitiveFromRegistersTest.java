@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class BitUtilitiesExtractPrimitiveFromRegistersTest {
+
+    private static final ModbusRegisterArray[] REGISTERS = new ModbusRegisterArray[] {
+            new BasicModbusRegisterArray(0, 0, 0, 0, 0), //
+            new BasicModbusRegisterArray(0xffff, 0xffff, 0xffff, 0xffff, 0xffff),
+            new BasicModbusRegisterArray(0x8000, 0x0001, 0x7fff, 0x1234, 0xfedc),
+            new BasicModbusRegisterArray(0x4049, 0x0fdb, 0xc2f6, 0xe979, 0x0080),
+            // NaN and infinity
+            new BasicModbusRegisterArray(0x7fc0, 0x0000, 0x7f80, 0x0000, 0xff80) };
+
+    private static int itemCount(ModbusRegisterArray registers, ValueType type) {
+        return type.getBits() >= 16 ? registers.size() - type.getBits() / 16 + 1
+                : registers.size() * 16 / type.getBits();
+    }
+
+    private static boolean isFloatingPoint(ValueType type) {
+        return type == ValueType.FLOAT32 || type == ValueType.FLOAT32_SWAP;
+    }
+
+    @Test
+    public void testRawBitsConvertToSameStateAsExtractState() {
+        for (ModbusRegisterArray registers : REGISTERS) {
+            for (ValueType type : ValueType.values()) {
+                for (int index = 0; index < itemCount(registers, type); index++) {
+                    long rawBits = ModbusBitUtilities.extractRawBitsFromRegisters(registers, index, type);
+                    assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type),
+                            ModbusBitUtilities.rawBitsToState(rawBits, type),
+                            is(equalTo(ModbusBitUtilities.extractStateFromRegisters(registers, index, type))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitivesMatchExtractState() {
+        for (ModbusRegisterArray registers : REGISTERS) {
+            for (ValueType type : ValueType.values()) {
+                for (int index = 0; index < itemCount(registers, type); index++) {
+                    String message = String.format("registers=%s, index=%d, type=%s", registers, index, type);
+                    Optional<DecimalType> state = ModbusBitUtilities.extractStateFromRegisters(registers, index,
+                            type);
+                    double doubleValue = ModbusBitUtilities.extractDoubleFromRegisters(registers, index, type);
+                    if (!state.isPresent()) {
+                        assertThat(message, Double.isFinite(doubleValue), is(false));
+                        continue;
+                    }
+                    BigDecimal expected = state.get().toBigDecimal();
+                    assertThat(message, doubleValue, is(equalTo(expected.doubleValue())));
+                    if (isFloatingPoint(type)) {
+                        assertThat(message, ModbusBitUtilities.extractFloatFromRegisters(registers, index, type),
+                                is(equalTo(expected.floatValue())));
+                    } else {
+                        long longValue = ModbusBitUtilities.extractLongFromRegisters(registers, index, type);
+                        assertThat(message, longValue, is(equalTo(expected.longValue())));
+                        if (type.getBits() <= 16 || type == ValueType.INT32 || type == ValueType.INT32_SWAP) {
+                            assertThat(message, ModbusBitUtilities.extractIntFromRegisters(registers, index, type),
+                                    is(equalTo(expected.intValue())));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsigned64BitValues() {
+        ModbusRegisterArray registers = new BasicModbusRegisterArray(0xffff, 0xffff, 0xffff, 0xfffe);
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.UINT64), is(equalTo(-2L)));
+        assertThat(ModbusBitUtilities.extractDoubleFromRegisters(registers, 0, ValueType.UINT64),
+                is(equalTo(18446744073709551614.0)));
+        assertThat(ModbusBitUtilities.extractStateFromRegisters(registers, 0, ValueType.UINT64).get(),
+                is(equalTo(new DecimalType("18446744073709551614"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntOfUnsigned32BitValueIsRejected() {
+        ModbusBitUtilities.extractIntFromRegisters(new BasicModbusRegisterArray(1, 2), 0, ValueType.UINT32);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongOfFloatIsRejected() {
+        ModbusBitUtilities.extractLongFromRegisters(new BasicModbusRegisterArray(1, 2), 0, ValueType.FLOAT32);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfBounds() {
+        ModbusBitUtilities.extractRawBitsFromRegisters(new BasicModbusRegisterArray(1, 2), 1, ValueType.INT32);
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.EndpointTaskQueue;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class EndpointTaskQueueTest {
+
+    /**
+     * Executor running the submitted runnables only when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> runnables = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            runnables.add(command);
+        }
+
+        void runAll() {
+            Runnable runnable;
+            while ((runnable = runnables.poll()) != null) {
+                runnable.run();
+            }
+        }
+    }
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final EndpointTaskQueue queue = new EndpointTaskQueue(new ModbusTCPSlaveEndpoint("127.0.0.1", 502),
+            executor);
+    private final List<String> executed = new ArrayList<>();
+
+    @Test
+    public void testWritesAreExecutedBeforePolls() {
+        queue.submitPoll(() -> executed.add("poll1"), 0, null, null);
+        queue.submitPoll(() -> executed.add("poll2"), 0, null, null);
+        queue.submitWrite(() -> executed.add("write"), null);
+        assertThat(queue.getQueueDepth(), is(equalTo(3)));
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write", "poll1", "poll2"))));
+        assertThat(queue.getQueueDepth(), is(equalTo(0)));
+        assertThat(queue.getExecutedTasks(), is(equalTo(3L)));
+    }
+
+    @Test
+    public void testSamePollIsNotQueuedTwice() {
+        Object key = new Object();
+        assertThat(queue.submitPoll(() -> executed.add("poll1"), 0, key, null), is(true));
+        assertThat(queue.submitPoll(() -> executed.add("poll2"), 0, key, null), is(false));
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("poll1"))));
+        assertThat(queue.getSkippedPolls(), is(equalTo(1L)));
+
+        // can be queued again after execution
+        assertThat(queue.submitPoll(() -> executed.add("poll3"), 0, key, null), is(true));
+    }
+
+    @Test
+    public void testStalePollIsSkipped() throws InterruptedException {
+        queue.submitPoll(() -> executed.add("poll"), 1, null, null);
+        Thread.sleep(10);
+
+        executor.runAll();
+
+        assertThat(executed.isEmpty(), is(true));
+        assertThat(queue.getSkippedPolls(), is(equalTo(1L)));
+        assertThat(queue.getExecutedTasks(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testThreadIsReleasedBetweenTurns() {
+        for (int i = 0; i < 15; i++) {
+            queue.submitPoll(() -> executed.add("poll"), 0, null, null);
+        }
+
+        // first turn only
+        executor.runnables.poll().run();
+        assertThat(executed.size(), is(equalTo(10)));
+        assertThat(executor.runnables.size(), is(equalTo(1)));
+
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(15)));
+    }
+
+    @Test
+    public void testClearNotifiesDroppedTasks() {
+        queue.submitPoll(() -> executed.add("poll1"), 0, null, () -> executed.add("dropped poll1"));
+        queue.submitPoll(() -> executed.add("poll2"), 0, new Object(), null);
+        queue.submitWrite(() -> executed.add("write"), () -> executed.add("dropped write"));
+
+        queue.clear();
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("dropped write", "dropped poll1"))));
+        assertThat(queue.getQueueDepth(), is(equalTo(0)));
+        assertThat(queue.getExecutedTasks(), is(equalTo(0L)));
+    }
+}
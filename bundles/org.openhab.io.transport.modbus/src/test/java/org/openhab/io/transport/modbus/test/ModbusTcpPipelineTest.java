@@ -0,0 +1,320 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.lang.Thread.State;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusTcpPipeline;
+import org.openhab.io.transport.modbus.internal.ModbusTcpPipeline.ConnectionProvider;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.io.ModbusTransport;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+import net.wimpi.modbus.msg.ReadInputRegistersResponse;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+import net.wimpi.modbus.net.TCPMasterConnection;
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.procimg.Register;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for {@link ModbusTcpPipeline}, using a fake transport which answers the requests written to it
+ *
+ * @author agent - Initial contribution
+ */
+public class ModbusTcpPipelineTest {
+
+    private static final int UNIT_ID = 1;
+
+    private final ModbusTCPSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+    private final ModbusTransport transport = mock(ModbusTransport.class);
+    private final TCPMasterConnection connection = mock(TCPMasterConnection.class);
+    private final ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Requests written to the transport, not yet answered
+     */
+    private final Deque<ModbusRequest> written = new LinkedList<>();
+
+    /**
+     * Responses to return before answering the written requests
+     */
+    private final Deque<ModbusResponse> extraResponses = new LinkedList<>();
+
+    /**
+     * Creates the response to the written request. By default, the register value equals the requested reference.
+     */
+    private Function<ModbusRequest, ModbusResponse> responder = request -> registerResponse(request,
+            reference(request));
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(transport).when(connection).getModbusTransport();
+        doReturn(Optional.of(connection)).when(connectionProvider).borrow(any());
+        doAnswer(invocation -> {
+            synchronized (written) {
+                written.add(invocation.getArgument(0));
+            }
+            return null;
+        }).when(transport).writeMessage(any());
+        // answers the last written request first, i.e. in reverse order
+        doAnswer(invocation -> {
+            ModbusResponse extra = extraResponses.poll();
+            if (extra != null) {
+                return extra;
+            }
+            synchronized (written) {
+                return responder.apply(written.removeLast());
+            }
+        }).when(transport).readResponse();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResponseIsReturned() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+
+        ModbusResponse response = pipeline.execute(request(5));
+
+        assertThat(response, is(instanceOf(ReadMultipleRegistersResponse.class)));
+        assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(5)));
+        verify(connectionProvider).release(eq(endpoint), any());
+    }
+
+    @Test
+    public void testResponseWithUnknownTransactionIdIsIgnored() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        ModbusResponse unknown = new ReadMultipleRegistersResponse(new Register[] { new SimpleRegister(99) });
+        unknown.setTransactionID(0xBEEF);
+        unknown.setUnitID(UNIT_ID);
+        extraResponses.add(unknown);
+
+        ModbusResponse response = pipeline.execute(request(5));
+
+        assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(5)));
+        verify(transport, times(2)).readResponse();
+        verify(connectionProvider).release(eq(endpoint), any());
+    }
+
+    @Test
+    public void testOutOfOrderResponsesAreMatchedToRequests() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        // Hold the first batch until the other requests are waiting, so that they are written together
+        CountDownLatch othersWaiting = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            othersWaiting.await();
+            return Optional.of(connection);
+        }).doReturn(Optional.of(connection)).when(connectionProvider).borrow(any());
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Future<ModbusResponse>> responses = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            ModbusReadRequestBlueprint request = request(i);
+            responses.add(executor.submit(() -> {
+                threads.add(Thread.currentThread());
+                return pipeline.execute(request);
+            }));
+            if (i == 1) {
+                verify(connectionProvider, timeout(1000)).borrow(any());
+            }
+        }
+        waitUntilWaiting(threads, 4);
+        othersWaiting.countDown();
+
+        for (int i = 1; i <= 4; i++) {
+            ModbusResponse response = responses.get(i - 1).get(5, TimeUnit.SECONDS);
+            assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(i)));
+        }
+        // first request alone, the three others in one batch
+        verify(connectionProvider, times(2)).borrow(any());
+    }
+
+    @Test
+    public void testInterruptedRequestIsNotSent() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        // Hold the leader until the follower has been interrupted
+        CountDownLatch followerInterrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            followerInterrupted.await();
+            return Optional.of(connection);
+        }).doReturn(Optional.of(connection)).when(connectionProvider).borrow(any());
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        Future<ModbusResponse> leader = executor.submit(() -> {
+            threads.add(Thread.currentThread());
+            return pipeline.execute(request(1));
+        });
+        verify(connectionProvider, timeout(1000)).borrow(any());
+        Future<ModbusResponse> follower = executor.submit(() -> {
+            threads.add(Thread.currentThread());
+            return pipeline.execute(request(2));
+        });
+        waitUntilWaiting(threads, 2);
+
+        threads.get(1).interrupt();
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            fail("Expected interruption");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(InterruptedException.class)));
+        }
+        followerInterrupted.countDown();
+        ModbusResponse response = leader.get(5, TimeUnit.SECONDS);
+        assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(1)));
+
+        response = pipeline.execute(request(3));
+        assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(3)));
+        // the request of the interrupted thread was never written
+        verify(transport, times(2)).writeMessage(any());
+    }
+
+    @Test
+    public void testExceptionResponseKeepsConnection() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        responder = request -> reference(request) == 2 ? exceptionResponse(request)
+                : registerResponse(request, reference(request));
+
+        try {
+            pipeline.execute(request(2));
+            fail("Expected exception response");
+        } catch (ModbusSlaveException e) {
+            assertThat(e.getType(), is(equalTo(2)));
+        }
+        // connection is still fine
+        verify(connectionProvider).release(eq(endpoint), any());
+        verify(connectionProvider, never()).invalidate(any(), any());
+
+        ModbusResponse response = pipeline.execute(request(3));
+        assertThat(((ReadMultipleRegistersResponse) response).getRegisterValue(0), is(equalTo(3)));
+    }
+
+    @Test(expected = ModbusIOException.class)
+    public void testResponseFromOtherUnitFailsRequest() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        responder = request -> {
+            ModbusResponse response = registerResponse(request, reference(request));
+            response.setUnitID(UNIT_ID + 1);
+            return response;
+        };
+
+        pipeline.execute(request(5));
+    }
+
+    @Test(expected = ModbusIOException.class)
+    public void testResponseWithOtherFunctionCodeFailsRequest() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        responder = request -> {
+            ReadInputRegistersResponse response = new ReadInputRegistersResponse(
+                    new InputRegister[] { new SimpleRegister(5) });
+            response.setTransactionID(request.getTransactionID());
+            response.setUnitID(request.getUnitID());
+            return response;
+        };
+
+        pipeline.execute(request(5));
+    }
+
+    @Test
+    public void testIOErrorFailsBatchAndInvalidatesConnection() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        doThrow(new ModbusIOException("broken pipe")).when(transport).readResponse();
+
+        try {
+            pipeline.execute(request(5));
+            fail("Expected I/O error");
+        } catch (ModbusIOException e) {
+            // expected
+        }
+        verify(connectionProvider).invalidate(eq(endpoint), any());
+        verify(connectionProvider, never()).release(any(), any());
+    }
+
+    @Test(expected = ModbusConnectionException.class)
+    public void testConnectionErrorFailsRequest() throws Exception {
+        ModbusTcpPipeline pipeline = new ModbusTcpPipeline(endpoint, 3, connectionProvider);
+        doReturn(Optional.<ModbusSlaveConnection> empty()).when(connectionProvider).borrow(any());
+
+        pipeline.execute(request(5));
+    }
+
+    private static ModbusReadRequestBlueprint request(int reference) {
+        return new BasicModbusReadRequestBlueprint(UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, reference,
+                1, 1);
+    }
+
+    private static int reference(ModbusRequest request) {
+        return ((ReadMultipleRegistersRequest) request).getReference();
+    }
+
+    private static ModbusResponse registerResponse(ModbusRequest request, int value) {
+        ReadMultipleRegistersResponse response = new ReadMultipleRegistersResponse(
+                new Register[] { new SimpleRegister(value) });
+        response.setTransactionID(request.getTransactionID());
+        response.setUnitID(request.getUnitID());
+        return response;
+    }
+
+    private static ModbusResponse exceptionResponse(ModbusRequest request) {
+        ExceptionResponse response = new ExceptionResponse(request.getFunctionCode(), 2);
+        response.setTransactionID(request.getTransactionID());
+        response.setUnitID(request.getUnitID());
+        return response;
+    }
+
+    private static void waitUntilWaiting(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            // the leader waits for the connection, the others for their response
+            if (threads.size() == count && threads.stream().allMatch(thread -> thread.getState() == State.WAITING
+                    || thread.getState() == State.TIMED_WAITING)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Threads did not start waiting");
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.MergedPollTask;
+import org.openhab.io.transport.modbus.internal.PollTaskPlanner;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class PollTaskPlannerTest {
+
+    private static class RecordingCallback implements ModbusReadCallback {
+        ModbusRegisterArray registers;
+        Exception error;
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            this.registers = registers;
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            this.error = error;
+        }
+    }
+
+    private final ModbusTCPSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+
+    private PollTask task(ModbusTCPSlaveEndpoint endpoint, int unitId, ModbusReadFunctionCode functionCode, int start,
+            int length, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(unitId, functionCode, start, length, 3), callback);
+    }
+
+    private PollTask task(int start, int length, ModbusReadCallback callback) {
+        return task(endpoint, 1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, length, callback);
+    }
+
+    @Test
+    public void testOverlappingAndAdjacentTasksAreMerged() {
+        PollTask task1 = task(0, 4, new RecordingCallback());
+        PollTask task2 = task(2, 4, new RecordingCallback());
+        PollTask task3 = task(6, 2, new RecordingCallback());
+
+        List<PollTask> planned = PollTaskPlanner.plan(Arrays.asList(task3, task1, task2));
+
+        assertThat(planned.size(), is(equalTo(1)));
+        assertThat(planned.get(0), is(instanceOf(MergedPollTask.class)));
+        assertThat(planned.get(0).getRequest().getReference(), is(equalTo(0)));
+        assertThat(planned.get(0).getRequest().getDataLength(), is(equalTo(8)));
+        assertThat(planned.get(0).getRequest().getMaxTries(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testTasksWithGapAreNotMerged() {
+        PollTask task1 = task(0, 4, new RecordingCallback());
+        PollTask task2 = task(5, 4, new RecordingCallback());
+
+        List<PollTask> planned = PollTaskPlanner.plan(Arrays.asList(task1, task2));
+
+        assertThat(planned.size(), is(equalTo(2)));
+        assertThat(planned.contains(task1), is(true));
+        assertThat(planned.contains(task2), is(true));
+    }
+
+    @Test
+    public void testTasksOfDifferentSlavesOrFunctionCodesAreNotMerged() {
+        RecordingCallback callback = new RecordingCallback();
+        List<PollTask> tasks = new ArrayList<>();
+        tasks.add(task(endpoint, 1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback));
+        tasks.add(task(endpoint, 2, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback));
+        tasks.add(task(endpoint, 1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 2, callback));
+        tasks.add(task(new ModbusTCPSlaveEndpoint("127.0.0.2", 502), 1,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback));
+
+        assertThat(PollTaskPlanner.plan(tasks).size(), is(equalTo(4)));
+    }
+
+    @Test
+    public void testMergedRequestDoesNotExceedProtocolLimit() {
+        PollTask task1 = task(0, 100, new RecordingCallback());
+        PollTask task2 = task(100, 26, new RecordingCallback());
+        PollTask task3 = task(126, 10, new RecordingCallback());
+
+        List<PollTask> planned = PollTaskPlanner.plan(Arrays.asList(task1, task2, task3));
+
+        assertThat(planned.size(), is(equalTo(2)));
+        assertThat(planned.contains(task1), is(true));
+        assertThat(planned.get(1).getRequest().getReference(), is(equalTo(100)));
+        assertThat(planned.get(1).getRequest().getDataLength(), is(equalTo(36)));
+    }
+
+    @Test
+    public void testResponseIsSplitToOriginalCallbacks() {
+        RecordingCallback callback1 = new RecordingCallback();
+        RecordingCallback callback2 = new RecordingCallback();
+        PollTask task1 = task(10, 2, callback1);
+        PollTask task2 = task(11, 3, callback2);
+
+        PollTask merged = PollTaskPlanner.plan(Arrays.asList(task1, task2)).get(0);
+        merged.getCallback().onRegisters(merged.getRequest(), new BasicModbusRegisterArray(1, 2, 3, 4));
+
+        assertThat(callback1.registers.size(), is(equalTo(2)));
+        assertThat(callback1.registers.getRegister(0).getValue(), is(equalTo(1)));
+        assertThat(callback1.registers.getRegister(1).getValue(), is(equalTo(2)));
+        assertThat(callback2.registers.size(), is(equalTo(3)));
+        assertThat(callback2.registers.getRegister(0).getValue(), is(equalTo(2)));
+        assertThat(callback2.registers.getRegister(2).getValue(), is(equalTo(4)));
+    }
+
+    @Test
+    public void testErrorIsPassedToAllOriginalCallbacks() {
+        RecordingCallback callback1 = new RecordingCallback();
+        RecordingCallback callback2 = new RecordingCallback();
+        PollTask merged = PollTaskPlanner.plan(Arrays.asList(task(0, 2, callback1), task(2, 2, callback2))).get(0);
+
+        Exception error = new Exception("test");
+        merged.getCallback().onError(merged.getRequest(), error);
+
+        assertThat(callback1.error, is(sameInstance(error)));
+        assertThat(callback2.error, is(sameInstance(error)));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Configuration of the MapDB persistence service, as read from the <code>org.openhab.mapdb</code> PID.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbConfiguration {
+
+    /**
+     * When enabled, updates are coalesced per item in memory and written to the database in one transaction,
+     * instead of committing after every single store.
+     */
+    public boolean writeBehind = false;
+
+    /**
+     * Interval in milliseconds after which pending updates are flushed in write-behind mode.
+     */
+    public long commitInterval = 1000;
+
+    /**
+     * Number of pending (dirty) items which triggers an immediate flush in write-behind mode.
+     */
+    public int commitThreshold = 500;
+
+    /**
+     * Use memory mapped files instead of RandomAccessFile for the database file, where supported by the JVM.
+     */
+    public boolean mmap = false;
+
+    /**
+     * Write records to disk asynchronously in a background thread.
+     */
+    public boolean asyncWrite = false;
+
+    /**
+     * Maximum number of records kept in the LRU instance cache. A value of zero keeps the MapDB default cache.
+     */
+    public int cacheSize = 0;
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact binary codec for {@link MapDbItem}s. The item name is not part of the encoded value since it is already
+ * the key of the map entry.
+ *
+ * The encoded form is a format version byte, the timestamp as epoch milliseconds, a type tag for the state class and
+ * a payload depending on the type tag. State classes without a dedicated tag are written as class name and full
+ * string representation, the same way {@link StateTypeAdapter} does.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_GENERIC = 0;
+    private static final byte TAG_ON_OFF = 1;
+    private static final byte TAG_OPEN_CLOSED = 2;
+    private static final byte TAG_UP_DOWN = 3;
+    private static final byte TAG_DECIMAL = 4;
+    private static final byte TAG_DECIMAL_BIG = 5;
+    private static final byte TAG_PERCENT = 6;
+    private static final byte TAG_STRING = 7;
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbItemCodec.class);
+
+    /**
+     * Encodes the timestamp and the state of the given item.
+     *
+     * @param item the item to encode
+     * @return the encoded item
+     */
+    public byte[] encode(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            serialize(out, item);
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an item previously encoded by {@link #encode(MapDbItem)}.
+     *
+     * @param name the name of the item, i.e. the key the value has been stored with
+     * @param data the encoded item
+     * @return the decoded item or <code>null</code> if the data could not be decoded
+     */
+    public @Nullable MapDbItem decode(String name, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return deserialize(in, name);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Couldn't decode stored state of item '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads only the timestamp of an encoded item, without decoding its state.
+     *
+     * @param data the encoded item
+     * @return the timestamp in epoch milliseconds
+     * @throws IllegalArgumentException if the data has an unknown format
+     */
+    public long decodeTimestamp(byte[] data) {
+        if (data.length < 1 + Long.BYTES || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported data format");
+        }
+        long timestamp = 0;
+        for (int i = 1; i <= Long.BYTES; i++) {
+            timestamp = (timestamp << 8) | (data[i] & 0xFF);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Writes the timestamp and the state of the given item to the given output.
+     *
+     * @param out the output to write to
+     * @param item the item to write
+     * @throws IOException if writing to the output fails
+     */
+    public void serialize(DataOutput out, MapDbItem item) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(item.getTimestamp().getTime());
+        writeState(out, item.getState());
+    }
+
+    /**
+     * Reads an item previously written by {@link #serialize(DataOutput, MapDbItem)}.
+     *
+     * @param in the input to read from
+     * @param name the name of the item
+     * @return the item or <code>null</code> if the state could not be restored
+     * @throws IOException if reading from the input fails or the data has an unknown format
+     */
+    public @Nullable MapDbItem deserialize(DataInput in, String name) throws IOException {
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        long timestamp = in.readLong();
+        State state = readState(in);
+        if (state == null) {
+            return null;
+        }
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(state);
+        item.setTimestamp(new Date(timestamp));
+        return item;
+    }
+
+    private void writeState(DataOutput out, State state) throws IOException {
+        Class<? extends State> type = state.getClass();
+        if (type == OnOffType.class) {
+            out.writeByte(TAG_ON_OFF);
+            out.writeByte(((OnOffType) state).ordinal());
+        } else if (type == OpenClosedType.class) {
+            out.writeByte(TAG_OPEN_CLOSED);
+            out.writeByte(((OpenClosedType) state).ordinal());
+        } else if (type == UpDownType.class) {
+            out.writeByte(TAG_UP_DOWN);
+            out.writeByte(((UpDownType) state).ordinal());
+        } else if (type == DecimalType.class) {
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (type == PercentType.class) {
+            out.writeByte(TAG_PERCENT);
+            writeString(out, state.toFullString());
+        } else if (type == StringType.class) {
+            out.writeByte(TAG_STRING);
+            writeString(out, state.toFullString());
+        } else {
+            out.writeByte(TAG_GENERIC);
+            writeString(out, type.getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    private @Nullable State readState(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_ON_OFF:
+                return OnOffType.values()[in.readByte()];
+            case TAG_OPEN_CLOSED:
+                return OpenClosedType.values()[in.readByte()];
+            case TAG_UP_DOWN:
+                return UpDownType.values()[in.readByte()];
+            case TAG_DECIMAL:
+                int scale = in.readInt();
+                return new DecimalType(BigDecimal.valueOf(in.readLong(), scale));
+            case TAG_DECIMAL_BIG:
+                return new DecimalType(new BigDecimal(readString(in)));
+            case TAG_PERCENT:
+                return new PercentType(new BigDecimal(readString(in)));
+            case TAG_STRING:
+                return new StringType(readString(in));
+            case TAG_GENERIC:
+                return readGenericState(readString(in), readString(in));
+            default:
+                throw new IOException("Unknown state type tag " + tag);
+        }
+    }
+
+    private @Nullable State readGenericState(String typeName, String value) {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> valueType = (Class<? extends State>) Class.forName(typeName);
+            List<Class<? extends State>> types = Collections.singletonList(valueType);
+            return TypeParser.parseState(types, value);
+        } catch (ClassNotFoundException | RuntimeException e) {
+            logger.warn("Couldn't deserialize state '{}' of type '{}': {}", value, typeName, e.getMessage());
+        }
+        return null;
+    }
+
+    private void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            out.writeByte(TAG_DECIMAL);
+            out.writeInt(value.scale());
+            out.writeLong(unscaled.longValue());
+        } else {
+            out.writeByte(TAG_DECIMAL_BIG);
+            writeString(out, value.toString());
+        }
+    }
+
+    private void writeString(DataOutput out, String value) throws IOException {
+        // DataOutput.writeUTF is limited to 64k, which is too small for StringType values
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.Date;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
+
+/**
+ * Lightweight {@link PersistenceItemInfo} kept in memory for every stored item, so item infos can be provided without
+ * decoding the stored states. MapDB only keeps the latest state of an item, hence the count is always one and the
+ * earliest and latest dates are the timestamp of that state.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemInfo implements PersistenceItemInfo {
+
+    private final String name;
+
+    private final Date timestamp;
+
+    public MapDbItemInfo(String name, Date timestamp) {
+        this.name = name;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public @Nullable Integer getCount() {
+        return 1;
+    }
+
+    @Override
+    public @Nullable Date getEarliest() {
+        return timestamp;
+    }
+
+    @Override
+    public @Nullable Date getLatest() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return name + " @ " + timestamp;
+    }
+}
@@ -15,17 +15,25 @@ package org.openhab.persistence.mapdb.internal;
 import java.io.File;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
@@ -37,12 +45,16 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 /**
  * This is the implementation of the MapDB {@link PersistenceService}. To learn
@@ -53,7 +65,8 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb")
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
@@ -62,24 +75,58 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    private static final String STORE_NAME = "itemStates";
+
+    /** name of the map holding Gson JSON serialized items, as written by previous versions */
+    private static final String LEGACY_STORE_NAME = "itemStore";
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
     private ExecutorService threadPool;
 
+    private MapDbConfiguration configuration = new MapDbConfiguration();
+
+    private final MapDbStatistics statistics = new MapDbStatistics();
+
+    /** holds updates not yet written to the database when running in write-behind mode */
+    private final Map<String, MapDbItem> pendingItems = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    /**
+     * Set when the database has been closed, so that late flushes and commits do not touch it. Guarded by flushLock.
+     */
+    private boolean closed;
+
+    /** set while a flush triggered by the commit threshold is queued, so only one is submitted at a time */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /** secondary index answering item info requests without decoding the stored states */
+    private final Map<String, MapDbItemInfo> itemInfos = new ConcurrentHashMap<>();
+
+    private @Nullable ScheduledFuture<?> flushJob;
+
     /** holds the local instance of the MapDB database */
     @NonNullByDefault({})
     private DB db;
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, byte[]> map;
+
+    private final MapDbItemCodec codec = new MapDbItemCodec();
 
     private transient Gson mapper = new GsonBuilder()
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
-    public void activate() {
+    @Activate
+    public void activate(@Nullable Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
+        if (config != null) {
+            configuration = new Configuration(config).as(MapDbConfiguration.class);
+        }
+
         threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
@@ -91,18 +138,60 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
             }
         }
 
+        long start = System.nanoTime();
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
-        db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-        map = db.createTreeMap("itemStore").makeOrGet();
+        db = createDBMaker(dbFile).make();
+        map = db.createTreeMap(STORE_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        migrateLegacyStore();
+        buildItemInfoIndex();
+        statistics.recordStartup(System.nanoTime() - start);
+        logger.debug("MapDB item store is queryable after {}ms", statistics.getStartupMillis());
+
+        if (configuration.writeBehind) {
+            ScheduledExecutorService scheduler = ThreadPoolManager
+                    .getScheduledPool(getClass().getSimpleName() + "-flush");
+            flushJob = scheduler.scheduleWithFixedDelay(this::flush, configuration.commitInterval,
+                    configuration.commitInterval, TimeUnit.MILLISECONDS);
+            logger.debug("MapDB write-behind enabled with commit interval {}ms and threshold {}",
+                    configuration.commitInterval, configuration.commitThreshold);
+        }
         logger.debug("MapDB persistence service is now activated");
     }
 
+    private DBMaker<?> createDBMaker(File dbFile) {
+        DBMaker<?> maker = DBMaker.newFileDB(dbFile).closeOnJvmShutdown();
+        if (configuration.mmap) {
+            maker = maker.mmapFileEnableIfSupported();
+        }
+        if (configuration.asyncWrite) {
+            maker = maker.asyncWriteEnable();
+        }
+        if (configuration.cacheSize > 0) {
+            maker = maker.cacheLRUEnable().cacheSize(configuration.cacheSize);
+        }
+        logger.debug("Opening MapDB database with mmap={}, asyncWrite={}, cacheSize={}", configuration.mmap,
+                configuration.asyncWrite, configuration.cacheSize);
+        return maker;
+    }
+
+    @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
         if (db != null) {
-            db.close();
+            synchronized (flushLock) {
+                if (!closed) {
+                    flush();
+                    closed = true;
+                    db.close();
+                }
+            }
         }
-        threadPool.shutdown();
+        logger.debug("MapDB statistics: {}", statistics);
     }
 
     @Override
@@ -117,10 +206,16 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
-                .flatMap(MapDbPersistenceService::streamOptional)
-                .collect(Collectors.<PersistenceItemInfo>toSet());
+        return new HashSet<>(itemInfos.values());
+    }
+
+    /**
+     * Returns the counters describing the write activity of this service.
+     *
+     * @return the statistics of this service
+     */
+    public MapDbStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
@@ -145,30 +240,64 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(alias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
-        commit();
+        itemInfos.put(alias, new MapDbItemInfo(alias, mItem.getTimestamp()));
+        if (configuration.writeBehind) {
+            if (pendingItems.put(alias, mItem) != null) {
+                statistics.recordCoalescedWrite();
+            }
+            if (pendingItems.size() >= configuration.commitThreshold && flushScheduled.compareAndSet(false, true)) {
+                threadPool.submit(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            }
+        } else {
+            map.put(alias, codec.encode(mItem));
+            commit();
+        }
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        MapDbItem pending = pendingItems.get(filter.getItemName());
+        if (pending != null) {
+            return Collections.singletonList(pending);
+        }
+        byte[] data = map.get(filter.getItemName());
+        if (data == null) {
             return Collections.emptyList();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(filter.getItemName(), data);
         if (!item.isPresent()) {
             return Collections.emptyList();
         }
         return Collections.singletonList(item.get());
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<MapDbItem> deserialize(String name, byte[] data) {
+        MapDbItem item = codec.decode(name, data);
+        if (item == null || !item.isValid()) {
+            logger.warn("Deserialized invalid item: {}", item);
+            return Optional.empty();
+        }
+        return Optional.of(item);
     }
 
-    private Optional<MapDbItem> deserialize(String json) {
+    private void buildItemInfoIndex() {
+        itemInfos.clear();
+        for (Entry<String, byte[]> entry : map.entrySet()) {
+            try {
+                Date timestamp = new Date(codec.decodeTimestamp(entry.getValue()));
+                itemInfos.put(entry.getKey(), new MapDbItemInfo(entry.getKey(), timestamp));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring stored item '{}' with invalid data: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        logger.debug("Indexed {} items of the MapDB database", itemInfos.size());
+    }
+
+    private Optional<MapDbItem> deserializeJson(String json) {
         MapDbItem item = mapper.<MapDbItem>fromJson(json, MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
@@ -177,14 +306,82 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
+    /**
+     * Converts the items of the JSON based store written by previous versions into the binary format and removes the
+     * old store afterwards. The old store is kept if any of its items could not be converted, so no data is lost and
+     * the remaining items are retried on the next start.
+     */
+    private void migrateLegacyStore() {
+        if (!db.exists(LEGACY_STORE_NAME)) {
+            return;
+        }
+        Map<String, String> legacyMap = db.getTreeMap(LEGACY_STORE_NAME);
+        int migrated = 0;
+        Set<String> failed = new TreeSet<>();
+        for (Entry<String, String> entry : legacyMap.entrySet()) {
+            if (map.containsKey(entry.getKey())) {
+                continue;
+            }
+            Optional<MapDbItem> item;
+            try {
+                item = deserializeJson(entry.getValue());
+            } catch (JsonParseException e) {
+                item = Optional.empty();
+            }
+            if (item.isPresent()) {
+                map.put(entry.getKey(), codec.encode(item.get()));
+                migrated++;
+            } else {
+                failed.add(entry.getKey());
+            }
+        }
+        if (failed.isEmpty()) {
+            db.delete(LEGACY_STORE_NAME);
+        } else {
+            logger.warn("Failed to migrate items {} of the MapDB database, keeping the old storage", failed);
+        }
+        db.commit();
+        logger.info("Migrated {} items of the MapDB database to the binary storage format", migrated);
+    }
+
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        threadPool.submit(() -> {
+            synchronized (flushLock) {
+                if (closed) {
+                    return;
+                }
+                db.commit();
+            }
+            statistics.recordCommit();
+        });
     }
 
-    private static <T> Stream<T> streamOptional(Optional<T> opt) {
-        if (!opt.isPresent()) {
-            return Stream.empty();
+    /**
+     * Writes all pending updates to the database and commits them in a single transaction. The updates stay pending
+     * until the commit has succeeded.
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            if (closed || pendingItems.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, MapDbItem> written = new HashMap<>();
+            try {
+                for (Entry<String, MapDbItem> entry : pendingItems.entrySet()) {
+                    MapDbItem item = entry.getValue();
+                    map.put(entry.getKey(), codec.encode(item));
+                    written.put(entry.getKey(), item);
+                }
+                db.commit();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush pending items to MapDB database: {}", e.getMessage());
+                return;
+            }
+            // keep the entries which have been updated again in the meantime
+            written.forEach(pendingItems::remove);
+            statistics.recordFlush(written.size(), System.nanoTime() - start);
+            logger.debug("Flushed {} items to MapDB database", written.size());
         }
-        return Stream.of(opt.get());
     }
 }
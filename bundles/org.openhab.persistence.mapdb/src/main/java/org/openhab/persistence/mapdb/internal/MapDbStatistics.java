@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Counters describing the write activity of the MapDB persistence service.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbStatistics {
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedItems = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong startupNanos = new AtomicLong();
+
+    void recordCommit() {
+        commits.incrementAndGet();
+    }
+
+    void recordCoalescedWrite() {
+        coalescedWrites.incrementAndGet();
+    }
+
+    void recordFlush(int items, long nanos) {
+        commits.incrementAndGet();
+        flushes.incrementAndGet();
+        flushedItems.addAndGet(items);
+        totalFlushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordStartup(long nanos) {
+        startupNanos.set(nanos);
+    }
+
+    /**
+     * @return time in milliseconds it took until the item store was queryable after activation
+     */
+    public double getStartupMillis() {
+        return (double) startupNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return number of database commits issued
+     */
+    public long getCommits() {
+        return commits.get();
+    }
+
+    /**
+     * @return number of updates which replaced a pending, not yet flushed update of the same item
+     */
+    public long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    /**
+     * @return number of write-behind flushes
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * @return number of items written to the database by write-behind flushes
+     */
+    public long getFlushedItems() {
+        return flushedItems.get();
+    }
+
+    /**
+     * @return average duration of a write-behind flush in milliseconds
+     */
+    public double getAverageFlushMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0 : (double) totalFlushNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return longest duration of a write-behind flush in milliseconds
+     */
+    public double getMaxFlushMillis() {
+        return (double) maxFlushNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "startup=%.2fms, commits=%d, coalescedWrites=%d, flushes=%d, flushedItems=%d, avgFlush=%.2fms, "
+                        + "maxFlush=%.2fms",
+                getStartupMillis(), getCommits(), getCoalescedWrites(), getFlushes(), getFlushedItems(), getAverageFlushMillis(),
+                getMaxFlushMillis());
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemCodec;
+import org.openhab.persistence.mapdb.internal.StateTypeAdapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbItemCodecTest {
+    MapDbItemCodec codec = new MapDbItemCodec();
+
+    Gson mapper = new GsonBuilder()
+        .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
+        .create();
+
+    @Test
+    public void encodeDecodeRoundtripShouldRecreateTheEncodedState() {
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+        assertThat(roundtrip(UpDownType.DOWN), is(equalTo(UpDownType.DOWN)));
+        assertThat(roundtrip(new DecimalType("-12.345")), is(equalTo(new DecimalType("-12.345"))));
+        assertThat(roundtrip(new DecimalType(new BigDecimal("123456789012345678901234567890.5"))),
+                is(equalTo(new DecimalType(new BigDecimal("123456789012345678901234567890.5")))));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(StringType.valueOf("test äöü")), is(equalTo(StringType.valueOf("test äöü"))));
+    }
+
+    @Test
+    public void encodeDecodeRoundtripShouldKeepTheTimestamp() {
+        MapDbItem item = item(OnOffType.OFF);
+
+        MapDbItem decoded = codec.decode(item.getName(), codec.encode(item));
+
+        assertThat(decoded.getName(), is(equalTo(item.getName())));
+        assertThat(decoded.getTimestamp(), is(equalTo(item.getTimestamp())));
+    }
+
+    @Test
+    public void decodeTimestampShouldReadTheTimestampOnly() {
+        MapDbItem item = item(HSBType.GREEN);
+
+        assertThat(codec.decodeTimestamp(codec.encode(item)), is(equalTo(item.getTimestamp().getTime())));
+    }
+
+    @Test
+    public void encodedItemShouldBeSmallerThanJson() {
+        for (State state : new State[] { OnOffType.ON, new DecimalType("21.5"), PercentType.HUNDRED, HSBType.GREEN,
+                StringType.valueOf("test") }) {
+            MapDbItem item = item(state);
+            int jsonSize = mapper.toJson(item).getBytes(StandardCharsets.UTF_8).length;
+            assertThat(codec.encode(item).length < jsonSize, is(true));
+        }
+    }
+
+    @Test
+    public void decodeShouldReturnNullForUnknownData() {
+        assertThat(codec.decode("item", new byte[] { 42 }), is(nullValue()));
+    }
+
+    private MapDbItem item(State state) {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(state);
+        item.setTimestamp(new Date(1546300800123L));
+        return item;
+    }
+
+    private State roundtrip(State state) {
+        MapDbItem item = item(state);
+        return codec.decode(item.getName(), codec.encode(item)).getState();
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.smarthome.core.library.items.NumberItem;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbPersistenceService;
+
+/**
+ * Tests the write-behind mode of the {@link MapDbPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbWriteBehindTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private MapDbPersistenceService service = new MapDbPersistenceService();
+
+    @After
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @AfterClass
+    public static void removeDatabase() throws IOException {
+        // clean up database files ...
+        final Path path = Paths.get("userdata");
+        if (Files.exists(path)) {
+            Files.walk(path).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void updatesOfPendingItemsAreCoalesced() {
+        activate(60000, 1000);
+
+        store("coalesced", 1);
+        store("coalesced", 2);
+        store("coalesced", 3);
+
+        assertThat(service.getStatistics().getCoalescedWrites(), is(2L));
+        assertThat(service.getStatistics().getFlushes(), is(0L));
+        assertThat(query("coalesced"), is(equalTo(new DecimalType(3))));
+    }
+
+    @Test
+    public void pendingItemsAreQueryable() {
+        activate(60000, 1000);
+
+        assertThat(query("pending"), is(nullValue()));
+        assertThat(hasItemInfo("pending"), is(false));
+
+        store("pending", 42);
+
+        assertThat(service.getStatistics().getFlushes(), is(0L));
+        assertThat(query("pending"), is(equalTo(new DecimalType(42))));
+        assertThat(hasItemInfo("pending"), is(true));
+    }
+
+    @Test
+    public void pendingItemsAreFlushedWhenThresholdIsReached() {
+        activate(60000, 3);
+
+        store("threshold1", 1);
+        store("threshold2", 2);
+        assertThat(service.getStatistics().getFlushes(), is(0L));
+
+        store("threshold3", 3);
+        waitFor(() -> service.getStatistics().getFlushes() == 1);
+        assertThat(service.getStatistics().getFlushedItems(), is(3L));
+        assertThat(query("threshold3"), is(equalTo(new DecimalType(3))));
+    }
+
+    @Test
+    public void pendingItemsAreFlushedAfterCommitInterval() {
+        activate(50, 1000);
+
+        store("interval", 7);
+        waitFor(() -> service.getStatistics().getFlushedItems() == 1);
+        assertThat(query("interval"), is(equalTo(new DecimalType(7))));
+    }
+
+    @Test
+    public void pendingItemsAreFlushedOnDeactivate() {
+        activate(60000, 1000);
+
+        store("deactivate", 5);
+        service.deactivate();
+        assertThat(service.getStatistics().getFlushedItems(), is(1L));
+
+        service = new MapDbPersistenceService();
+        service.activate(null);
+        assertThat(query("deactivate"), is(equalTo(new DecimalType(5))));
+        assertThat(hasItemInfo("deactivate"), is(true));
+    }
+
+    @Test
+    public void thresholdFlushAfterDeactivateIsSkipped() throws InterruptedException {
+        activate(60000, 1);
+        service.deactivate();
+
+        store("late", 1);
+        Thread.sleep(200);
+        assertThat(service.getStatistics().getFlushes(), is(0L));
+        assertThat(query("late"), is(equalTo(new DecimalType(1))));
+    }
+
+    private void activate(long commitInterval, int commitThreshold) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("writeBehind", Boolean.TRUE);
+        config.put("commitInterval", BigDecimal.valueOf(commitInterval));
+        config.put("commitThreshold", BigDecimal.valueOf(commitThreshold));
+        service.activate(config);
+    }
+
+    private void store(String name, int value) {
+        NumberItem item = new NumberItem(name);
+        item.setState(new DecimalType(value));
+        service.store(item);
+    }
+
+    private State query(String name) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(name);
+        Iterator<HistoricItem> result = service.query(filter).iterator();
+        return result.hasNext() ? result.next().getState() : null;
+    }
+
+    private boolean hasItemInfo(String name) {
+        for (PersistenceItemInfo info : service.getItemInfo()) {
+            if (name.equals(info.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MILLIS + "ms");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
@@ -14,8 +14,12 @@ package org.openhab.transform.bin2json.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.slf4j.Logger;
@@ -24,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -66,11 +71,57 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}
  * </pre>
  *
+ * <p>
+ * When only the JSON string is needed, <code>convertToJsonString</code> methods should be preferred. They write the
+ * parsed fields directly as JSON, without building {@link JsonObject} tree first. Instances are thread-safe and can be
+ * reused for several conversions, so that the parser rule is prepared only once.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
 public class Bin2Json {
 
+    /**
+     * Largest buffer kept for reuse by the thread, in characters. Larger buffers are dropped after use.
+     */
+    private static final int MAX_REUSED_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<StringWriter> STRING_WRITER = ThreadLocal.withInitial(StringWriter::new);
+
+    /**
+     * {@link InputStream} reading the remaining bytes of {@link ByteBuffer} without copying them
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
     private JBBPParser parser;
@@ -137,6 +188,177 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to JSON string.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToJsonString(String hexString) throws ConversionException {
+        final byte[] data;
+        try {
+            data = HexUtils.hexToBytes(hexString);
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+        return convertToJsonString(data);
+    }
+
+    /**
+     * Convert byte array to JSON string.
+     *
+     * @param data Data in byte array format.
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToJsonString(byte[] data) throws ConversionException {
+        try {
+            return toJsonString(parser.parse(data));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert remaining bytes of {@link ByteBuffer} to JSON string. The bytes are read directly from the buffer,
+     * without copying them. Position of the given buffer is not changed.
+     *
+     * @param data Data in byte buffer.
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToJsonString(ByteBuffer data) throws ConversionException {
+        try {
+            return toJsonString(parser.parse(new ByteBufferInputStream(data.duplicate())));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    private String toJsonString(JBBPFieldStruct data) throws IOException, ConversionException {
+        LocalDateTime start = LocalDateTime.now();
+        StringWriter out = STRING_WRITER.get();
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writeStruct(writer, data);
+            writer.flush();
+            final String json = out.toString();
+            if (logger.isTraceEnabled()) {
+                Duration duration = Duration.between(start, LocalDateTime.now());
+                logger.trace("Conversion time={}, json={}", duration, json);
+            }
+            return json;
+        } finally {
+            if (out.getBuffer().capacity() > MAX_REUSED_BUFFER_SIZE) {
+                STRING_WRITER.remove();
+            } else {
+                // do not keep the converted data around until the next conversion of the thread
+                out.getBuffer().setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Write struct fields as JSON object. Fields with the same name (e.g. unnamed fields) are written once, with the
+     * value of the last field, in the position of the first field, like {@link JsonObject} does.
+     */
+    private void writeStruct(final JsonWriter writer, final JBBPFieldStruct struct)
+            throws IOException, ConversionException {
+        final Map<String, JBBPAbstractField> fields = new LinkedHashMap<>();
+        for (final JBBPAbstractField f : struct.getArray()) {
+            fields.put(getFieldName(f), f);
+        }
+        writer.beginObject();
+        for (final Map.Entry<String, JBBPAbstractField> entry : fields.entrySet()) {
+            writer.name(entry.getKey());
+            writeValue(writer, entry.getValue());
+        }
+        writer.endObject();
+    }
+
+    private void writeValue(final JsonWriter writer, final JBBPAbstractField field)
+            throws IOException, ConversionException {
+        if (field instanceof JBBPAbstractArrayField) {
+            writer.beginArray();
+            if (field instanceof JBBPFieldArrayBit) {
+                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    writer.beginObject();
+                    writer.name(getFieldName(element));
+                    writeStruct(writer, element);
+                    writer.endObject();
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
+                    writer.value(b & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
+                    writer.value(b & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            writer.endArray();
+        } else {
+            if (field instanceof JBBPFieldBit) {
+                writer.value(((JBBPFieldBit) field).getAsInt());
+            } else if (field instanceof JBBPFieldBoolean) {
+                writer.value(((JBBPFieldBoolean) field).getAsBool());
+            } else if (field instanceof JBBPFieldByte) {
+                writer.value(((JBBPFieldByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldInt) {
+                writer.value(((JBBPFieldInt) field).getAsInt());
+            } else if (field instanceof JBBPFieldLong) {
+                writer.value(((JBBPFieldLong) field).getAsLong());
+            } else if (field instanceof JBBPFieldShort) {
+                writer.value(((JBBPFieldShort) field).getAsInt());
+            } else if (field instanceof JBBPFieldStruct) {
+                writeStruct(writer, (JBBPFieldStruct) field);
+            } else if (field instanceof JBBPFieldUByte) {
+                writer.value(((JBBPFieldUByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldUShort) {
+                writer.value(((JBBPFieldUShort) field).getAsInt());
+            } else {
+                throw new ConversionException(String.format("Unexpected field '%s'", field));
+            }
+        }
+    }
+
+    private static String getFieldName(final JBBPAbstractField field) {
+        return field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
@@ -12,6 +12,10 @@
  */
 package org.openhab.transform.bin2json.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
@@ -30,8 +34,25 @@ import org.slf4j.LoggerFactory;
 @Component(immediate = true, property = { "smarthome.transform=BIN2JSON" })
 public class Bin2JsonTransformationService implements TransformationService {
 
+    /**
+     * Maximum number of prepared parsers to keep
+     */
+    private static final int MAX_CACHED_PARSERS = 64;
+
     private Logger logger = LoggerFactory.getLogger(Bin2JsonTransformationService.class);
 
+    /**
+     * Prepared parsers by syntax, least recently used first. Guarded by itself.
+     */
+    private final Map<String, Bin2Json> parsers = new LinkedHashMap<String, Bin2Json>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(@Nullable Entry<String, Bin2Json> eldest) {
+            return size() > MAX_CACHED_PARSERS;
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by Java Binary Block Parser syntax.
      *
@@ -46,7 +67,7 @@ public class Bin2JsonTransformationService implements TransformationService {
         String result = "";
 
         try {
-            result = String.valueOf(new Bin2Json(syntax).convert(source));
+            result = getParser(syntax).convertToJsonString(source);
             logger.debug("transformation resulted '{}'", result);
             return result;
         } catch (ConversionException e) {
@@ -56,4 +77,19 @@ public class Bin2JsonTransformationService implements TransformationService {
                     result);
         }
     }
+
+    private Bin2Json getParser(String syntax) throws ConversionException {
+        synchronized (parsers) {
+            Bin2Json parser = parsers.get(syntax);
+            if (parser != null) {
+                return parser;
+            }
+        }
+        // prepared outside the lock, concurrent preparation of the same syntax is harmless
+        Bin2Json parser = new Bin2Json(syntax);
+        synchronized (parsers) {
+            parsers.put(syntax, parser);
+        }
+        return parser;
+    }
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.smarthome.core.util.HexUtils;
+import org.junit.Test;
+
+/**
+ * Tests that the JSON strings written by {@link Bin2Json} equal the JSON objects it builds.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    @Test
+    public void testReadmeExample() throws ConversionException {
+        Bin2Json bin2Json = new Bin2Json("byte a; byte b; ubyte c;");
+        assertThat(bin2Json.convertToJsonString("03FAFF"), is(equalTo("{\"a\":3,\"b\":-6,\"c\":255}")));
+        assertSameJson(bin2Json, "03FAFF");
+    }
+
+    @Test
+    public void testPrimitiveFields() throws ConversionException {
+        assertSameJson(new Bin2Json("bit:3 b; bool f; short s; ushort us; int i; long l;"),
+                "05" + "01" + "FFFE" + "FFFE" + "80000001" + "8000000000000001");
+    }
+
+    @Test
+    public void testArrayFields() throws ConversionException {
+        assertSameJson(new Bin2Json("bit:1 [8] bits; bool [2] flags; byte [2] b; ubyte [2] ub; short [2] s; "
+                + "ushort [2] us; int [2] i; long [1] l;"),
+                "A5" + "0100" + "80FF" + "80FF" + "8000FFFF" + "8000FFFF" + "80000000FFFFFFFF" + "0102030405060708");
+    }
+
+    @Test
+    public void testStructFields() throws ConversionException {
+        assertSameJson(new Bin2Json("header { ubyte length; byte type; } items [2] { ushort value; } byte end;"),
+                "02" + "FF" + "0001" + "FFFF" + "7F");
+    }
+
+    @Test
+    public void testUnnamedFields() throws ConversionException {
+        assertSameJson(new Bin2Json("byte; byte a; byte;"), "010203");
+    }
+
+    @Test
+    public void testByteBufferIsReadFromPosition() throws ConversionException {
+        Bin2Json bin2Json = new Bin2Json("byte a; byte b; ubyte c;");
+        ByteBuffer buffer = ByteBuffer.wrap(HexUtils.hexToBytes("0003FAFF"));
+        buffer.position(1);
+
+        assertThat(bin2Json.convertToJsonString(buffer),
+                is(equalTo(bin2Json.convert(HexUtils.hexToBytes("03FAFF")).toString())));
+        assertThat(buffer.position(), is(1));
+    }
+
+    @Test
+    public void testLargeOutputDoesNotAffectFollowingConversions() throws ConversionException {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            hex.append("7F");
+        }
+        assertSameJson(new Bin2Json("byte [_] values;"), hex.toString());
+        assertSameJson(new Bin2Json("byte a;"), "01");
+    }
+
+    private static void assertSameJson(Bin2Json bin2Json, String hexString) throws ConversionException {
+        byte[] data = HexUtils.hexToBytes(hexString);
+        String expected = bin2Json.convert(data).toString();
+
+        assertThat(bin2Json.convertToJsonString(hexString), is(equalTo(expected)));
+        assertThat(bin2Json.convertToJsonString(data), is(equalTo(expected)));
+        assertThat(bin2Json.convertToJsonString(ByteBuffer.wrap(data)), is(equalTo(expected)));
+    }
+}
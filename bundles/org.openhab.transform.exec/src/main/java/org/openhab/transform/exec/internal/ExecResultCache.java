@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Results of commands, keyed by command line and input, which expire after a fixed time. The least recently used
+ * result is dropped when the cache is full.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ExecResultCache {
+
+    private static final int MAX_SIZE = 256;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<Key, Entry> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private long ttlNanos;
+
+    /**
+     * Set time to live of the results. Zero disables the cache.
+     *
+     * @param ttlMillis time to live in milliseconds
+     */
+    public synchronized void setTtl(long ttlMillis) {
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        if (ttlNanos <= 0) {
+            entries.clear();
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return ttlNanos > 0;
+    }
+
+    /**
+     * Get result, unless it has expired
+     *
+     * @param commandLine the command line
+     * @param input the input
+     * @return result, or null if not cached
+     */
+    public synchronized @Nullable String get(String commandLine, String input) {
+        Key key = new Key(commandLine, input);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.created > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.result;
+    }
+
+    /**
+     * Put result, if the cache is enabled
+     *
+     * @param commandLine the command line
+     * @param input the input
+     * @param result the result
+     */
+    public synchronized void put(String commandLine, String input, String result) {
+        if (ttlNanos > 0) {
+            entries.put(new Key(commandLine, input), new Entry(result, System.nanoTime()));
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Key {
+        private final String commandLine;
+        private final String input;
+
+        Key(String commandLine, String input) {
+            this.commandLine = commandLine;
+            this.input = input;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(commandLine, input);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return commandLine.equals(other.commandLine) && input.equals(other.input);
+        }
+    }
+
+    private static class Entry {
+        private final String result;
+        private final long created;
+
+        Entry(String result, long created) {
+            this.result = result;
+            this.created = created;
+        }
+    }
+}
@@ -12,12 +12,27 @@
  */
 package org.openhab.transform.exec.internal;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,19 +40,114 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by command line.
  *
+ * Command lines starting with <code>worker:</code> are run as long-lived workers, see {@link ExecWorker}. At most
+ * {@link #MAX_WORKERS} workers are kept, and workers which have not been used for {@link #WORKER_IDLE_MILLIS} are
+ * stopped. Other command lines are executed for every input. At most <code>maxConcurrent</code> transformations run
+ * at once, in either mode. Results can be cached for <code>cacheTTL</code> seconds. Both are properties of
+ * <code>transform.exec</code> configuration.
+ *
  * @author Pauli Anttila
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=EXEC" })
+@Component(immediate = true, property = { "smarthome.transform=EXEC" }, configurationPid = "transform.exec",
+        configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class ExecTransformationService implements TransformationService {
 
+    static final String WORKER_PREFIX = "worker:";
+    static final String CONFIG_CACHE_TTL = "cacheTTL";
+    static final String CONFIG_MAX_CONCURRENT = "maxConcurrent";
+    static final int DEFAULT_CACHE_TTL = 0;
+    static final int DEFAULT_MAX_CONCURRENT = 8;
+    static final int MAX_WORKERS = 16;
+    static final long WORKER_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
 
+    private final ExecResultCache cache = new ExecResultCache();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private final long timeoutMillis;
+
+    /**
+     * Workers by command line, least recently used first. Guarded by itself.
+     */
+    private final Map<String, ExecWorker> workers = new LinkedHashMap<>(16, 0.75f, true);
+    private @Nullable ScheduledFuture<?> idleWorkersJob;
+    private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+    private volatile Semaphore permits = new Semaphore(DEFAULT_MAX_CONCURRENT);
+
+    public ExecTransformationService() {
+        this(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * For testing, thus package visibility by design
+     */
+    ExecTransformationService(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Activate
+    protected void activate(@Nullable Map<String, Object> config) {
+        modified(config);
+        idleWorkersJob = scheduler.scheduleWithFixedDelay(() -> stopIdleWorkers(WORKER_IDLE_MILLIS), 1, 1,
+                TimeUnit.MINUTES);
+    }
+
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        int cacheTTL = getInt(config, CONFIG_CACHE_TTL, DEFAULT_CACHE_TTL, 0);
+        int maxConcurrent = getInt(config, CONFIG_MAX_CONCURRENT, DEFAULT_MAX_CONCURRENT, 1);
+        cache.setTtl(TimeUnit.SECONDS.toMillis(cacheTTL));
+        if (maxConcurrent != this.maxConcurrent) {
+            // processes running with permits of the old semaphore release them there
+            this.maxConcurrent = maxConcurrent;
+            permits = new Semaphore(maxConcurrent);
+        }
+        logger.debug("Configured {}={}, {}={}", CONFIG_CACHE_TTL, cacheTTL, CONFIG_MAX_CONCURRENT, maxConcurrent);
+    }
+
+    private int getInt(@Nullable Map<String, Object> config, String name, int defaultValue, int minValue) {
+        Object value = config == null ? null : config.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int result = Integer.parseInt(value.toString().trim());
+            if (result >= minValue) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        logger.warn("Invalid {} '{}', using default {}", name, value, defaultValue);
+        return defaultValue;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ScheduledFuture<?> idleWorkersJob = this.idleWorkersJob;
+        if (idleWorkersJob != null) {
+            idleWorkersJob.cancel(false);
+            this.idleWorkersJob = null;
+        }
+        List<ExecWorker> stopped;
+        synchronized (workers) {
+            stopped = new ArrayList<>(workers.values());
+            workers.clear();
+        }
+        stopped.forEach(ExecWorker::close);
+        cache.clear();
+    }
+
     /**
      * Transforms the input <code>source</code> by the command line.
      *
      * @param commandLine the command to execute. Command line should contain %s string,
-     *                        which will be replaced by the input data.
+     *                        which will be replaced by the input data, unless it starts with
+     *                        <code>worker:</code>.
      * @param source      the input to transform
      */
     @Override
@@ -48,13 +158,126 @@ public class ExecTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the commandline '{}'", source, commandLine);
 
+        String result = cache.get(commandLine, source);
+        if (result != null) {
+            logger.trace("using cached result '{}'", result);
+            return result;
+        }
+
         long startTime = System.currentTimeMillis();
 
-        String formattedCommandLine = String.format(commandLine, source);
-        String result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, 5000);
+        if (commandLine.startsWith(WORKER_PREFIX)) {
+            String workerCommandLine = commandLine.substring(WORKER_PREFIX.length()).trim();
+            result = getWorker(workerCommandLine).execute(source, timeoutMillis, permits);
+        } else {
+            result = executeCommandLine(String.format(commandLine, source));
+        }
         logger.trace("command line execution elapsed {} ms", System.currentTimeMillis() - startTime);
 
+        if (result != null) {
+            cache.put(commandLine, source, result);
+        }
         return result;
     }
 
+    private @Nullable String executeCommandLine(String formattedCommandLine) throws TransformationException {
+        Semaphore permits = acquirePermit(formattedCommandLine);
+        try {
+            return ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, (int) timeoutMillis);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Wait for one of the <code>maxConcurrent</code> permits to run a transformation
+     *
+     * @param commandLine command line to run, for messages
+     * @return semaphore to release the permit to
+     * @throws TransformationException if no permit was released in time
+     */
+    private Semaphore acquirePermit(String commandLine) throws TransformationException {
+        Semaphore permits = this.permits;
+        acquirePermit(permits, commandLine, timeoutMillis);
+        return permits;
+    }
+
+    /**
+     * Wait for a permit of the given semaphore, see {@link #acquirePermit(String)}
+     */
+    static void acquirePermit(Semaphore permits, String commandLine, long timeoutMillis)
+            throws TransformationException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TransformationException(
+                        String.format("Too many concurrent executions, '%s' not executed", commandLine));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting to execute '" + commandLine + "'");
+        }
+    }
+
+    /**
+     * Get worker of the command line, creating it if needed. The least recently used worker is closed when there are
+     * more than {@link #MAX_WORKERS}.
+     */
+    private ExecWorker getWorker(String commandLine) {
+        ExecWorker worker;
+        ExecWorker evicted = null;
+        synchronized (workers) {
+            worker = workers.get(commandLine);
+            if (worker == null) {
+                worker = new ExecWorker(commandLine, scheduler);
+                workers.put(commandLine, worker);
+                if (workers.size() > MAX_WORKERS) {
+                    Iterator<ExecWorker> eldest = workers.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            logger.debug("Too many workers, closing the least recently used one");
+            evicted.close();
+        }
+        return worker;
+    }
+
+    /**
+     * Close workers which have not been used for the given time
+     *
+     * @param idleMillis idle time in milliseconds
+     */
+    void stopIdleWorkers(long idleMillis) {
+        List<ExecWorker> idle = new ArrayList<>();
+        synchronized (workers) {
+            Iterator<ExecWorker> it = workers.values().iterator();
+            while (it.hasNext()) {
+                ExecWorker worker = it.next();
+                if (worker.isIdle(idleMillis)) {
+                    idle.add(worker);
+                    it.remove();
+                }
+            }
+        }
+        idle.forEach(ExecWorker::close);
+    }
+
+    /**
+     * For testing, thus package visibility by design
+     */
+    int getWorkerCount() {
+        synchronized (workers) {
+            return workers.size();
+        }
+    }
+
+    /**
+     * For testing, thus package visibility by design
+     */
+    Semaphore getPermits() {
+        return permits;
+    }
+
 }
@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived external program transforming values with a line-delimited protocol: every input is written to the
+ * standard input of the program as one line, and the program answers with one line on its standard output.
+ *
+ * The program is started on first use, and restarted when it has terminated or did not answer in time. Requests are
+ * sent one at a time, and the answer is read by the requesting thread. A request waits for its turn before it takes a
+ * permit to run, so threads queued on a busy worker do not hold permits other transformations could use. A watchdog
+ * on the given scheduler kills the program when it does not answer in time. Processes started by the program must not
+ * inherit its standard output, otherwise the end of the program is only noticed when they terminate, too.
+ *
+ * Output on standard error is logged after each answer. It is not read while the program is idle.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ExecWorker {
+
+    private final Logger logger = LoggerFactory.getLogger(ExecWorker.class);
+
+    private final String commandLine;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Held while a request is sent and answered, guards the program and its streams
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private @Nullable Process process;
+    private @Nullable Writer stdin;
+    private @Nullable BufferedReader stdout;
+    private @Nullable InputStream stderr;
+    private volatile boolean closed;
+    private volatile long lastUsed = System.nanoTime();
+
+    /**
+     * Create worker, without starting the program
+     *
+     * @param commandLine command line of the program. Arguments are separated by whitespace, or by '@@' if the
+     *            command line contains it.
+     * @param scheduler scheduler for the timeout of the answers
+     */
+    public ExecWorker(String commandLine, ScheduledExecutorService scheduler) {
+        this.commandLine = commandLine;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Transform the input by the program. If the program has terminated since the last answer, it is started again
+     * and the input is sent once more.
+     *
+     * @param input single-line input
+     * @param timeoutMillis maximum time to wait for the turn of the request, for a permit, and for the answer
+     * @param permits permits to run a transformation, one is taken once it is the turn of the request
+     * @return answer of the program
+     * @throws TransformationException if the worker or all permits were busy, or if the program could not be started,
+     *             terminated or did not answer in time
+     */
+    public String execute(String input, long timeoutMillis, Semaphore permits) throws TransformationException {
+        if (input.indexOf('\n') >= 0 || input.indexOf('\r') >= 0) {
+            throw new TransformationException("Input of worker '" + commandLine + "' must not contain line breaks");
+        }
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TransformationException(
+                        String.format("Worker '%s' is busy, '%s' not executed", commandLine, input));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting for worker '" + commandLine + "'");
+        }
+        try {
+            ExecTransformationService.acquirePermit(permits, commandLine, timeoutMillis);
+            try {
+                return execute(input, timeoutMillis);
+            } finally {
+                permits.release();
+            }
+        } finally {
+            lock.unlock();
+            if (closed) {
+                // the worker has been closed while it was in use, do not leave the program running
+                stopIfIdle();
+            }
+        }
+    }
+
+    private String execute(String input, long timeoutMillis) throws TransformationException {
+        lastUsed = System.nanoTime();
+        try {
+            Process process = this.process;
+            String response = process != null && process.isAlive() ? exchange(input, timeoutMillis) : null;
+            if (response == null) {
+                stopProgram();
+                start();
+                response = exchange(input, timeoutMillis);
+            }
+            if (response == null) {
+                stopProgram();
+                throw new TransformationException("Worker '" + commandLine + "' terminated without answer");
+            }
+            return response;
+        } finally {
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * Send input to the running program and read its answer
+     *
+     * @return answer, or null if the program has terminated
+     * @throws TransformationException if the program did not answer in time
+     */
+    private @Nullable String exchange(String input, long timeoutMillis) throws TransformationException {
+        Process process = this.process;
+        Writer stdin = this.stdin;
+        BufferedReader stdout = this.stdout;
+        if (process == null || stdin == null || stdout == null) {
+            return null;
+        }
+        try {
+            stdin.write(input);
+            stdin.write('\n');
+            stdin.flush();
+        } catch (IOException e) {
+            logger.trace("Failed to send input to worker '{}'", commandLine, e);
+            return null;
+        }
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = scheduler.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        String response;
+        try {
+            response = stdout.readLine();
+        } catch (IOException e) {
+            logger.trace("Failed to read answer of worker '{}'", commandLine, e);
+            response = null;
+        } finally {
+            watchdog.cancel(false);
+        }
+        logErrorOutput();
+        if (response == null && timedOut.get()) {
+            stopProgram();
+            throw new TransformationException(
+                    String.format("Worker '%s' did not answer within %d ms", commandLine, timeoutMillis));
+        }
+        return response;
+    }
+
+    /**
+     * Start the program
+     */
+    private void start() throws TransformationException {
+        Process process;
+        try {
+            process = new ProcessBuilder(splitCommandLine(commandLine)).start();
+        } catch (IOException | RuntimeException e) {
+            throw new TransformationException("Failed to start worker '" + commandLine + "'", e);
+        }
+        logger.debug("Started worker '{}'", commandLine);
+
+        this.process = process;
+        this.stdin = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        this.stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.stderr = process.getErrorStream();
+    }
+
+    /**
+     * Log what the program has written to standard error so far, without waiting for more
+     */
+    private void logErrorOutput() {
+        InputStream stderr = this.stderr;
+        if (stderr == null) {
+            return;
+        }
+        try {
+            int available;
+            while ((available = stderr.available()) > 0) {
+                byte[] buffer = new byte[available];
+                int length = stderr.read(buffer);
+                if (length < 0) {
+                    break;
+                }
+                logger.debug("Worker '{}' reported: {}", commandLine,
+                        new String(buffer, 0, length, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException e) {
+            // the process has gone
+        }
+    }
+
+    /**
+     * Stop the program, waiting for the current request to finish. It is started again on next use.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopProgram();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stopIfIdle() {
+        if (lock.tryLock()) {
+            try {
+                stopProgram();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void stopProgram() {
+        Process process = this.process;
+        if (process != null) {
+            logErrorOutput();
+            process.destroy();
+            logger.debug("Stopped worker '{}'", commandLine);
+        }
+        Writer stdin = this.stdin;
+        if (stdin != null) {
+            try {
+                stdin.close();
+            } catch (IOException e) {
+                // the process has gone
+            }
+        }
+        BufferedReader stdout = this.stdout;
+        if (stdout != null) {
+            try {
+                stdout.close();
+            } catch (IOException e) {
+                // the process has gone
+            }
+        }
+        this.process = null;
+        this.stdin = null;
+        this.stdout = null;
+        this.stderr = null;
+    }
+
+    /**
+     * Stop the program for good, without waiting for the current request. A request in progress stops the program
+     * after its answer. A request which is sent nevertheless starts the program, and stops it after the answer, too.
+     */
+    public void close() {
+        closed = true;
+        stopIfIdle();
+    }
+
+    /**
+     * Check if the program is running
+     *
+     * @return true if the program is running
+     */
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            Process process = this.process;
+            return process != null && process.isAlive();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check if the worker has not been used for the given time
+     *
+     * @param idleMillis idle time in milliseconds
+     * @return true if the last request has finished at least the given time ago
+     */
+    public boolean isIdle(long idleMillis) {
+        return System.nanoTime() - lastUsed >= TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    /**
+     * Split command line the same way {@link org.eclipse.smarthome.io.net.exec.ExecUtil} does
+     */
+    static List<String> splitCommandLine(String commandLine) {
+        List<String> arguments = new ArrayList<>();
+        if (commandLine.contains("@@")) {
+            for (String argument : commandLine.split("@@")) {
+                arguments.add(argument);
+            }
+        } else {
+            StringTokenizer tokenizer = new StringTokenizer(commandLine);
+            while (tokenizer.hasMoreTokens()) {
+                arguments.add(tokenizer.nextToken());
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExecResultCache}
+ *
+ * @author agent - Initial contribution
+ */
+public class ExecResultCacheTest {
+
+    private final ExecResultCache cache = new ExecResultCache();
+
+    @Test
+    public void testDisabledByDefault() {
+        cache.put("cmd %s", "input", "result");
+
+        assertThat(cache.isEnabled(), is(false));
+        assertThat(cache.get("cmd %s", "input"), is(nullValue()));
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testResultIsKeyedByCommandLineAndInput() {
+        cache.setTtl(60000);
+        cache.put("cmd %s", "input", "result");
+
+        assertThat(cache.get("cmd %s", "input"), is(equalTo("result")));
+        assertThat(cache.get("cmd %s", "other"), is(nullValue()));
+        assertThat(cache.get("other %s", "input"), is(nullValue()));
+    }
+
+    @Test
+    public void testResultExpires() throws InterruptedException {
+        cache.setTtl(50);
+        cache.put("cmd %s", "input", "result");
+        assertThat(cache.get("cmd %s", "input"), is(equalTo("result")));
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("cmd %s", "input"), is(nullValue()));
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() {
+        cache.setTtl(60000);
+        for (int i = 0; i < 256; i++) {
+            cache.put("cmd %s", Integer.toString(i), "result" + i);
+        }
+        // use the oldest result, so that the second oldest is evicted
+        assertThat(cache.get("cmd %s", "0"), is(equalTo("result0")));
+
+        cache.put("cmd %s", "256", "result256");
+
+        assertThat(cache.size(), is(equalTo(256)));
+        assertThat(cache.get("cmd %s", "0"), is(equalTo("result0")));
+        assertThat(cache.get("cmd %s", "1"), is(nullValue()));
+        assertThat(cache.get("cmd %s", "256"), is(equalTo("result256")));
+    }
+
+    @Test
+    public void testDisablingClearsCache() {
+        cache.setTtl(60000);
+        cache.put("cmd %s", "input", "result");
+
+        cache.setTtl(0);
+
+        assertThat(cache.size(), is(equalTo(0)));
+        cache.setTtl(60000);
+        assertThat(cache.get("cmd %s", "input"), is(nullValue()));
+    }
+}
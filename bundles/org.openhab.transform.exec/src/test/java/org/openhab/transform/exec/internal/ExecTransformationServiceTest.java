@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the concurrency limit and the workers of {@link ExecTransformationService}
+ *
+ * @author agent - Initial contribution
+ */
+public class ExecTransformationServiceTest {
+
+    private final ExecTransformationService service = new ExecTransformationService(200);
+
+    @Before
+    public void setUp() {
+        assumeTrue(new File("/bin/sh").canExecute());
+        service.modified(Collections.singletonMap(ExecTransformationService.CONFIG_MAX_CONCURRENT, "1"));
+    }
+
+    @After
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @Test
+    public void testWorkerTransformation() throws TransformationException {
+        assertThat(service.transform("worker:cat", "input"), is(equalTo("input")));
+        assertThat(service.getWorkerCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testWorkerFailsWhenPermitsAreExhausted() throws TransformationException {
+        assertPermitsAreRequired("worker:cat");
+    }
+
+    @Test
+    public void testCommandLineFailsWhenPermitsAreExhausted() throws TransformationException {
+        assertPermitsAreRequired("echo %s");
+    }
+
+    @Test
+    public void testPermitsFollowConfiguration() {
+        service.modified(Collections.singletonMap(ExecTransformationService.CONFIG_MAX_CONCURRENT, "3"));
+
+        assertThat(service.getPermits().availablePermits(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedWorkerIsClosed() throws TransformationException {
+        for (int i = 0; i <= ExecTransformationService.MAX_WORKERS; i++) {
+            assertThat(service.transform("worker:sh@@-c@@exec cat@@" + i, "input" + i), is(equalTo("input" + i)));
+        }
+
+        assertThat(service.getWorkerCount(), is(equalTo(ExecTransformationService.MAX_WORKERS)));
+    }
+
+    @Test
+    public void testIdleWorkersAreClosed() throws TransformationException {
+        service.transform("worker:cat", "input");
+
+        service.stopIdleWorkers(60000);
+        assertThat(service.getWorkerCount(), is(equalTo(1)));
+
+        service.stopIdleWorkers(0);
+        assertThat(service.getWorkerCount(), is(equalTo(0)));
+        // started again on next use
+        assertThat(service.transform("worker:cat", "again"), is(equalTo("again")));
+    }
+
+    private void assertPermitsAreRequired(String commandLine) throws TransformationException {
+        // hold the only permit
+        assertThat(service.getPermits().tryAcquire(), is(true));
+        try {
+            service.transform(commandLine, "input");
+            fail("Expected transformation to fail");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("Too many concurrent executions"));
+        } finally {
+            service.getPermits().release();
+        }
+
+        assertThat(service.transform(commandLine, "input"), is(notNullValue()));
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExecWorker}, using shell commands as workers
+ *
+ * @author agent - Initial contribution
+ */
+public class ExecWorkerTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Semaphore permits = new Semaphore(2);
+    private ExecWorker worker;
+    private File marker;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(new File("/bin/sh").canExecute());
+        marker = File.createTempFile("execworker", ".marker");
+        marker.delete();
+    }
+
+    @After
+    public void tearDown() {
+        if (worker != null) {
+            worker.close();
+        }
+        if (marker != null) {
+            marker.delete();
+        }
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testWorkerAnswersEachInput() throws TransformationException {
+        worker = new ExecWorker("cat", scheduler);
+
+        assertThat(worker.isRunning(), is(false));
+        assertThat(worker.execute("first", TIMEOUT_MILLIS, permits), is(equalTo("first")));
+        assertThat(worker.execute("second", TIMEOUT_MILLIS, permits), is(equalTo("second")));
+        assertThat(worker.isRunning(), is(true));
+    }
+
+    @Test
+    public void testInputWithLineBreakIsRejected() throws TransformationException {
+        worker = new ExecWorker("cat", scheduler);
+
+        for (String input : Arrays.asList("two\nlines", "two\rlines")) {
+            try {
+                worker.execute(input, TIMEOUT_MILLIS, permits);
+                fail("Expected input to be rejected");
+            } catch (TransformationException e) {
+                assertThat(e.getMessage(), containsString("line breaks"));
+            }
+        }
+        // nothing has been started for the rejected inputs
+        assertThat(worker.isRunning(), is(false));
+    }
+
+    @Test
+    public void testWorkerIsRestartedAfterExit() throws TransformationException {
+        // answers one input, then terminates
+        worker = new ExecWorker("head -n 1", scheduler);
+
+        assertThat(worker.execute("first", TIMEOUT_MILLIS, permits), is(equalTo("first")));
+        assertThat(worker.execute("second", TIMEOUT_MILLIS, permits), is(equalTo("second")));
+    }
+
+    @Test
+    public void testWorkerIsRestartedAfterTimeout() throws TransformationException {
+        // the first process does not answer, the next ones do
+        worker = new ExecWorker("sh@@-c@@if [ -e \"$0\" ]; then exec cat; fi; touch \"$0\"; exec sleep 30@@"
+                + marker.getAbsolutePath(), scheduler);
+
+        long start = System.currentTimeMillis();
+        try {
+            worker.execute("first", 200, permits);
+            fail("Expected timeout");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("did not answer"));
+        }
+        assertThat(System.currentTimeMillis() - start < TIMEOUT_MILLIS, is(true));
+        assertThat(worker.isRunning(), is(false));
+
+        assertThat(worker.execute("second", TIMEOUT_MILLIS, permits), is(equalTo("second")));
+    }
+
+    @Test
+    public void testWorkerTerminatingWithoutAnswerFails() {
+        worker = new ExecWorker("true", scheduler);
+
+        try {
+            worker.execute("input", TIMEOUT_MILLIS, permits);
+            fail("Expected failure");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("terminated without answer"));
+        }
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testUnknownProgramFails() throws TransformationException {
+        worker = new ExecWorker("/nonexistent/program", scheduler);
+
+        worker.execute("input", TIMEOUT_MILLIS, permits);
+    }
+
+    @Test
+    public void testClosedWorkerDoesNotKeepProgramRunning() throws TransformationException {
+        worker = new ExecWorker("cat", scheduler);
+        worker.execute("first", TIMEOUT_MILLIS, permits);
+
+        worker.close();
+        assertThat(worker.isRunning(), is(false));
+
+        assertThat(worker.execute("second", TIMEOUT_MILLIS, permits), is(equalTo("second")));
+        assertThat(worker.isRunning(), is(false));
+    }
+
+    @Test
+    public void testRequestWaitsForBusyWorkerWithoutPermit() throws Exception {
+        worker = new ExecWorker("sh@@-c@@while read line; do sleep 1; echo \"$line\"; done", scheduler);
+        Future<String> first = executor.submit(() -> worker.execute("first", TIMEOUT_MILLIS, permits));
+        waitForPermits(1);
+
+        try {
+            worker.execute("second", 200, permits);
+            fail("Expected busy worker");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("busy"));
+        }
+        // the waiting request has not taken the other permit
+        assertThat(permits.availablePermits(), is(1));
+        assertThat(first.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(equalTo("first")));
+        assertThat(permits.availablePermits(), is(2));
+    }
+
+    @Test
+    public void testCloseDoesNotWaitForBusyWorker() throws Exception {
+        worker = new ExecWorker("sh@@-c@@while read line; do sleep 1; echo \"$line\"; done", scheduler);
+        Future<String> first = executor.submit(() -> worker.execute("first", TIMEOUT_MILLIS, permits));
+        waitForPermits(1);
+
+        worker.close();
+        assertThat(first.isDone(), is(false));
+
+        // the program is stopped after the answer
+        assertThat(first.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(equalTo("first")));
+        assertThat(worker.isRunning(), is(false));
+    }
+
+    @Test
+    public void testSplitCommandLine() {
+        assertThat(ExecWorker.splitCommandLine("head  -n 1"), is(equalTo(Arrays.asList("head", "-n", "1"))));
+        assertThat(ExecWorker.splitCommandLine("sh@@-c@@echo a b"), is(equalTo(Arrays.asList("sh", "-c", "echo a b"))));
+    }
+
+    private void waitForPermits(int available) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (permits.availablePermits() != available) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Permit has not been taken");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+
+/**
+ * Bounded pool of compiled instances of one script. Every instance is compiled on its own engine, since script
+ * engines are not safe to be used by several threads at once. Each evaluation gets its own bindings.
+ *
+ * The initial instances are compiled when the pool is created. More instances are compiled on demand, up to the
+ * maximum size of the pool. When all instances are in use, evaluation waits for an instance to be released.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class CompiledScriptPool {
+
+    /**
+     * Maximum time to wait for a free instance
+     */
+    static final long BORROW_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final String filename;
+    private final String script;
+    private final Supplier<ScriptEngine> engineSupplier;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final BlockingQueue<CompiledScript> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final EvaluationStatistics statistics = new EvaluationStatistics();
+
+    /**
+     * Create pool, compiling the initial instances of the script
+     *
+     * @param filename name of the script file, for messages
+     * @param script the script
+     * @param engineSupplier supplier of new engines
+     * @param initialSize number of instances to compile right away, at least one
+     * @param maxSize maximum number of compiled instances
+     * @throws TransformationException if compile of the script failed
+     */
+    public CompiledScriptPool(String filename, String script, Supplier<ScriptEngine> engineSupplier, int initialSize,
+            int maxSize) throws TransformationException {
+        this(filename, script, engineSupplier, initialSize, maxSize, BORROW_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * For testing, thus package visibility by design
+     */
+    CompiledScriptPool(String filename, String script, Supplier<ScriptEngine> engineSupplier, int initialSize,
+            int maxSize, long borrowTimeoutMillis) throws TransformationException {
+        if (initialSize <= 0 || initialSize > maxSize) {
+            throw new IllegalArgumentException("initialSize should be positive and not larger than maxSize");
+        }
+        this.filename = filename;
+        this.script = script;
+        this.engineSupplier = engineSupplier;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        for (int i = 0; i < initialSize; i++) {
+            idle.add(compile());
+            size.incrementAndGet();
+        }
+    }
+
+    /**
+     * Evaluate the script with isolated bindings
+     *
+     * @param input value of 'input' variable of the script
+     * @return result of the script
+     * @throws TransformationException if no instance was available, or the script could not be compiled
+     * @throws ScriptException if the evaluation failed
+     */
+    public @Nullable Object eval(String input) throws TransformationException, ScriptException {
+        CompiledScript compiledScript = borrow();
+        long start = System.nanoTime();
+        try {
+            final Bindings bindings = compiledScript.getEngine().createBindings();
+            bindings.put("input", input);
+            return compiledScript.eval(bindings);
+        } finally {
+            statistics.record(System.nanoTime() - start);
+            idle.add(compiledScript);
+        }
+    }
+
+    private CompiledScript borrow() throws TransformationException {
+        CompiledScript compiledScript = idle.poll();
+        if (compiledScript != null) {
+            return compiledScript;
+        }
+        int current;
+        while ((current = size.get()) < maxSize) {
+            if (size.compareAndSet(current, current + 1)) {
+                try {
+                    return compile();
+                } catch (TransformationException | RuntimeException e) {
+                    size.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        try {
+            compiledScript = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting for JavaScript " + filename);
+        }
+        if (compiledScript == null) {
+            throw new TransformationException(
+                    String.format("All %d instances of JavaScript %s are busy", maxSize, filename));
+        }
+        return compiledScript;
+    }
+
+    private CompiledScript compile() throws TransformationException {
+        try {
+            return ((Compilable) engineSupplier.get()).compile(script);
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get number of compiled instances
+     *
+     * @return number of compiled instances
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get latency statistics of the evaluations
+     *
+     * @return evaluation statistics
+     */
+    public EvaluationStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Latency statistics of script evaluations. Percentiles are calculated from the most recent evaluations.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class EvaluationStatistics {
+
+    /**
+     * Number of most recent evaluations used for percentiles
+     */
+    private static final int SAMPLES = 1024;
+
+    private final long[] latencies = new long[SAMPLES];
+    private long count;
+
+    /**
+     * Record evaluation
+     *
+     * @param nanos latency of the evaluation in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        latencies[(int) (count % SAMPLES)] = nanos;
+        count++;
+    }
+
+    /**
+     * Get total number of evaluations
+     *
+     * @return number of evaluations
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get latency percentile of the most recent evaluations
+     *
+     * @param percentile percentile between 0 and 100
+     * @return latency in milliseconds, or 0 if there are no evaluations
+     */
+    public double getPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile should be between 0 and 100");
+        }
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, (int) Math.min(count, SAMPLES));
+        }
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return (double) sorted[Math.max(index, 0)] / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EvaluationStatistics(count=%d, p50=%.3fms, p90=%.3fms, p99=%.3fms)", getCount(),
+                getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99));
+    }
+}
@@ -13,20 +13,18 @@
 package org.openhab.transform.javascript.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
@@ -35,6 +33,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Simple cache for compiled JavaScript files.
  *
+ * Every script has a bounded pool of compiled instances, so that several threads can evaluate the same script at
+ * once.
+ *
  * @author Thomas Kordelle - pre compiled scripts
  *
  */
@@ -42,39 +43,48 @@ import org.slf4j.LoggerFactory;
 @Component(service = JavaScriptEngineManager.class)
 public class JavaScriptEngineManager {
 
+    /**
+     * Maximum number of compiled instances per script
+     */
+    private static final int MAX_INSTANCES_PER_SCRIPT = Math
+            .max(2, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, CompiledScriptPool> compiledScriptMap = new ConcurrentHashMap<>();
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
+     * Get a pool of pre compiled scripts {@link CompiledScriptPool} from cache. If it is not in the cache, then load
+     * it from storage and put a pool with one pre compiled instance into the cache. The pool compiles more instances on
+     * demand, up to {@link #MAX_INSTANCES_PER_SCRIPT}.
+     *
+     * The script is compiled without holding any lock, so loading a script does not delay the transformations of
+     * other scripts. When several threads load the same script at once, the pool of the first one is kept.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return a pool of pre compiled scripts {@link CompiledScriptPool}
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
-            }
+    protected CompiledScriptPool getScript(final String filename) throws TransformationException {
+        CompiledScriptPool pool = compiledScriptMap.get(filename);
+        if (pool != null) {
+            return pool;
+        }
+        final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+        logger.debug("Loading script {} from storage ", path);
+        try {
+            final String script = new String(Files.readAllBytes(Paths.get(path)), Charset.defaultCharset());
+            pool = new CompiledScriptPool(filename, script, this::createEngine, 1, MAX_INSTANCES_PER_SCRIPT);
+        } catch (IOException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
         }
+        logger.debug("Putting compiled JavaScript {} to cache.", filename);
+        CompiledScriptPool existing = compiledScriptMap.putIfAbsent(filename, pool);
+        return existing != null ? existing : pool;
+    }
+
+    private ScriptEngine createEngine() {
+        return manager.getEngineByName("javascript");
     }
 
     /**
@@ -84,6 +94,20 @@ public class JavaScriptEngineManager {
      */
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        CompiledScriptPool pool = compiledScriptMap.remove(fileName);
+        if (pool != null) {
+            logger.debug("Evaluations of JavaScript {}: {}", fileName, pool.getStatistics());
+        }
+    }
+
+    /**
+     * Get latency statistics of the evaluations of a cached script
+     *
+     * @param fileName name of the script file
+     * @return statistics, or null if the script is not in the cache
+     */
+    public @Nullable EvaluationStatistics getStatistics(String fileName) {
+        CompiledScriptPool pool = compiledScriptMap.get(fileName);
+        return pool == null ? null : pool.getStatistics();
     }
 }
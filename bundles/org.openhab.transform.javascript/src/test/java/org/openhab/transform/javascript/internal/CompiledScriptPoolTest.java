@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompiledScriptPool}, using a fake engine which runs a Java function as script
+ *
+ * @author agent - Initial contribution
+ */
+public class CompiledScriptPoolTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger compiles = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testInitialInstancesAreCompiledRightAway() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script", engines(context -> "result"), 3, 3);
+
+        assertThat(pool.getSize(), is(equalTo(3)));
+        assertThat(compiles.get(), is(equalTo(3)));
+        assertThat(pool.eval("input"), is(equalTo("result")));
+        assertThat(compiles.get(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testInputIsBound() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script",
+                engines(context -> "value: " + context.getAttribute("input")), 1, 1);
+
+        assertThat(pool.eval("42"), is(equalTo("value: 42")));
+    }
+
+    @Test
+    public void testEvaluationsHaveIsolatedBindings() throws Exception {
+        // the script returns the variable set by the previous evaluation, if any, and sets it to the input
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script", engines(context -> {
+            Object previous = context.getAttribute("state");
+            context.setAttribute("state", context.getAttribute("input"), ScriptContext.ENGINE_SCOPE);
+            return previous;
+        }), 1, 1);
+
+        assertThat(pool.eval("first"), is(nullValue()));
+        // same instance, since the pool has only one
+        assertThat(pool.eval("second"), is(nullValue()));
+    }
+
+    @Test
+    public void testInstancesAreCompiledOnDemand() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script", engines(context -> {
+            await(release);
+            return context.getAttribute("input");
+        }), 1, 2);
+
+        Future<Object> first = executor.submit(() -> pool.eval("first"));
+        Future<Object> second = executor.submit(() -> pool.eval("second"));
+        waitForCompiles(2);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS), is(equalTo("first")));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(equalTo("second")));
+        assertThat(pool.getSize(), is(equalTo(2)));
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenAllInstancesAreBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script", engines(context -> {
+            started.countDown();
+            await(release);
+            return context.getAttribute("input");
+        }), 1, 1, 50);
+
+        Future<Object> busy = executor.submit(() -> pool.eval("busy"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            pool.eval("waiting");
+            fail("Expected borrow to time out");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("busy"));
+        }
+        release.countDown();
+
+        assertThat(busy.get(5, TimeUnit.SECONDS), is(equalTo("busy")));
+        // the instance is available again
+        assertThat(pool.eval("again"), is(equalTo("again")));
+        assertThat(pool.getSize(), is(equalTo(1)));
+    }
+
+    @Test(expected = ScriptException.class)
+    public void testInstanceIsReleasedAfterFailedEvaluation() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool("test.js", "script", engines(context -> {
+            if ("fail".equals(context.getAttribute("input"))) {
+                throw new ScriptException("failed");
+            }
+            return "ok";
+        }), 1, 1, 50);
+
+        try {
+            pool.eval("fail");
+        } finally {
+            assertThat(pool.eval("again"), is(equalTo("ok")));
+            assertThat(pool.getStatistics().getCount(), is(equalTo(2L)));
+        }
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testCompileErrorFailsCreation() throws Exception {
+        new CompiledScriptPool("test.js", "script", () -> new FakeEngine(null), 1, 1);
+    }
+
+    private Supplier<ScriptEngine> engines(ScriptFunction function) {
+        return () -> {
+            compiles.incrementAndGet();
+            return new FakeEngine(function);
+        };
+    }
+
+    private void waitForCompiles(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (compiles.get() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Instances were not compiled");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws ScriptException {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new ScriptException("not released");
+            }
+        } catch (InterruptedException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScriptFunction {
+        Object apply(ScriptContext context) throws ScriptException;
+    }
+
+    /**
+     * Engine which compiles any script to the given function, or fails to compile if there is none
+     */
+    private static class FakeEngine extends AbstractScriptEngine implements Compilable {
+        private final ScriptFunction function;
+
+        FakeEngine(ScriptFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public CompiledScript compile(String script) throws ScriptException {
+            if (function == null) {
+                throw new ScriptException("syntax error");
+            }
+            return new CompiledScript() {
+                @Override
+                public Object eval(ScriptContext context) throws ScriptException {
+                    return function.apply(context);
+                }
+
+                @Override
+                public ScriptEngine getEngine() {
+                    return FakeEngine.this;
+                }
+            };
+        }
+
+        @Override
+        public CompiledScript compile(Reader script) throws ScriptException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object eval(String script, ScriptContext context) throws ScriptException {
+            return compile(script).eval(context);
+        }
+
+        @Override
+        public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        @Override
+        public ScriptEngineFactory getFactory() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
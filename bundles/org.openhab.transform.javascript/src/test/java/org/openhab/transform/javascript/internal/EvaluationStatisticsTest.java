@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link EvaluationStatistics}
+ *
+ * @author agent - Initial contribution
+ */
+public class EvaluationStatisticsTest {
+
+    private final EvaluationStatistics statistics = new EvaluationStatistics();
+
+    @Test
+    public void testNoEvaluations() {
+        assertThat(statistics.getCount(), is(equalTo(0L)));
+        assertThat(statistics.getPercentileMillis(50), is(equalTo(0.0)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        // record in reverse order, percentiles must not depend on it
+        for (int millis = 100; millis >= 1; millis--) {
+            record(millis);
+        }
+
+        assertThat(statistics.getCount(), is(equalTo(100L)));
+        assertThat(statistics.getPercentileMillis(0), is(equalTo(1.0)));
+        assertThat(statistics.getPercentileMillis(1), is(equalTo(1.0)));
+        assertThat(statistics.getPercentileMillis(50), is(equalTo(50.0)));
+        assertThat(statistics.getPercentileMillis(90), is(equalTo(90.0)));
+        assertThat(statistics.getPercentileMillis(99.5), is(equalTo(100.0)));
+        assertThat(statistics.getPercentileMillis(100), is(equalTo(100.0)));
+    }
+
+    @Test
+    public void testSingleEvaluation() {
+        statistics.record(TimeUnit.MICROSECONDS.toNanos(1500));
+
+        assertThat(statistics.getPercentileMillis(0), is(equalTo(1.5)));
+        assertThat(statistics.getPercentileMillis(100), is(equalTo(1.5)));
+    }
+
+    @Test
+    public void testOnlyMostRecentEvaluationsAreUsed() {
+        for (int i = 0; i < 1024; i++) {
+            record(1000);
+        }
+        for (int i = 0; i < 1024; i++) {
+            record(2);
+        }
+
+        assertThat(statistics.getCount(), is(equalTo(2048L)));
+        assertThat(statistics.getPercentileMillis(100), is(equalTo(2.0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePercentileIsRejected() {
+        statistics.getPercentileMillis(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPercentileAbove100IsRejected() {
+        statistics.getPercentileMillis(100.1);
+    }
+
+    private void record(long millis) {
+        statistics.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
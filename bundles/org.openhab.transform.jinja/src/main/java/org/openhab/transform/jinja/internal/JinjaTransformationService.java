@@ -13,12 +13,13 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,11 +32,22 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Parsed templates are cached, and <code>value_json</code> is bound as a lazy view of the JSON tree, converting only
+ * the parts of the tree the template accesses.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -43,10 +55,32 @@ import com.hubspot.jinjava.Jinjava;
 @Component(immediate = true, property = { "smarthome.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    /**
+     * Maximum number of parsed templates to keep
+     */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private Jinjava jinjava = new Jinjava();
 
+    /**
+     * Parsed templates, least recently used first. Guarded by itself.
+     *
+     * A parse tree is rendered by several threads at once. This is safe since rendering does not modify the tree, all
+     * render state is kept in the interpreter and its context, which are created per transformation.
+     */
+    private final Map<String, Node> templates = new LinkedHashMap<String, Node>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(@Nullable Entry<String, Node> eldest) {
+            return size() > MAX_CACHED_TEMPLATES;
+        }
+    };
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -62,46 +96,55 @@ public class JinjaTransformationService implements TransformationService {
         bindings.put("value", value);
 
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
+            JsonNode tree = OBJECT_MAPPER.readTree(value);
+            bindings.put("value_json", LazyJsonView.of(tree));
         } catch (IOException e) {
             // ok, then value_json is null...
         }
 
-        String transformationResult = jinjava.render(template, bindings);
+        String transformationResult = render(template, bindings);
 
         logger.debug("transformation resulted in '{}'", transformationResult);
 
         return transformationResult;
     }
 
-    private static @Nullable Object toObject(JsonNode node) {
-        switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
-                }
-                return result;
+    /**
+     * Render the template like {@link Jinjava#render(String, Map)} does, but using cached parse tree of the template.
+     * Templates are cached only when they are parsed without errors.
+     */
+    private String render(String template, Map<String, @Nullable Object> bindings) {
+        Context context = new Context(jinjava.getGlobalContext());
+        context.putAll(bindings);
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            Node root;
+            synchronized (templates) {
+                root = templates.get(template);
             }
-            case NUMBER:
-                return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
+            if (root == null) {
+                root = interpreter.parse(template);
+                if (interpreter.getErrors().isEmpty()) {
+                    synchronized (templates) {
+                        templates.put(template, root);
+                    }
                 }
-                return result;
             }
-            case STRING:
-                return node.asText();
-            case BOOLEAN:
-                return node.asBoolean();
-            case NULL:
-            default:
-                return null;
+
+            String result = interpreter.render(root);
+
+            List<TemplateError> fatalErrors = interpreter.getErrors().stream()
+                    .filter(error -> error.getSeverity() == ErrorType.FATAL).collect(Collectors.toList());
+            if (!fatalErrors.isEmpty()) {
+                throw new FatalTemplateErrorsException(template, fatalErrors);
+            }
+            return result;
+        } catch (InterpretException e) {
+            throw new FatalTemplateErrorsException(template,
+                    Collections.singletonList(TemplateError.fromSyntaxError(e)));
+        } finally {
+            JinjavaInterpreter.popCurrent();
         }
     }
 }
@@ -12,6 +12,15 @@
  */
 package org.openhab.transform.jinja.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Assert;
 import org.junit.Before;
@@ -62,4 +71,57 @@ public class JinjaTransformationServiceTest {
         Assert.assertEquals("Hello world!", transformedResponse);
     }
 
+    @Test
+    public void testSameTemplateWithDifferentValues() throws TransformationException {
+        String template = "{{value_json.sensor.values[1]}} {{value_json.unit}}";
+
+        Assert.assertEquals("2 C", processor.transform(template, "{\"sensor\":{\"values\":[1,2]},\"unit\":\"C\"}"));
+        Assert.assertEquals("3.5 F",
+                processor.transform(template, "{\"sensor\":{\"values\":[1,3.5,4]},\"unit\":\"F\"}"));
+    }
+
+    @Test
+    public void testMissingField() throws TransformationException {
+        Assert.assertEquals("missing",
+                processor.transform("{{ value_json.unknown if value_json.unknown else 'missing' }}", "{\"a\":1}"));
+    }
+
+    @Test
+    public void testLoopOverArray() throws TransformationException {
+        String json = "{\"a\":[{\"b\":1},{\"b\":2}]}";
+        Assert.assertEquals("1,2,", processor.transform("{% for v in value_json.a %}{{ v.b }},{% endfor %}", json));
+    }
+
+    @Test
+    public void testConcurrentRenderOfSameTemplate() throws Exception {
+        // the parse tree of the template is cached and shared by all threads
+        String template = "{% for v in value_json.values %}{{ v }},{% endfor %}{{ value_json.name | upper }}"
+                + "{% if value_json.big %} big{% endif %}";
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final int n = i;
+                Callable<Void> task = () -> {
+                    String json = String.format("{\"values\":[\"a%d\",\"b%d\"],\"name\":\"n%d\",\"big\":%b}", n,
+                            n, n, n % 2 == 0);
+                    String expected = String.format("a%d,b%d,N%d%s", n, n, n, n % 2 == 0 ? " big" : "");
+                    start.await();
+                    for (int j = 0; j < 200; j++) {
+                        Assert.assertEquals(expected, processor.transform(template, json));
+                    }
+                    return null;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +28,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -41,8 +46,45 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(immediate = true, property = { "smarthome.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    /**
+     * Maximum number of compiled JsonPath expressions to keep
+     */
+    static final int MAX_COMPILED_PATHS = 256;
+
+    /**
+     * Maximum number of parsed documents to keep. Several channels are typically extracting values from the same
+     * document at about the same time.
+     */
+    static final int MAX_PARSED_DOCUMENTS = 16;
+
+    /**
+     * Time after which parsed documents are parsed again
+     */
+    static final long PARSED_DOCUMENT_TTL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static class ParsedDocument {
+        private final Object document;
+        private final long parsedNanos = System.nanoTime();
+
+        ParsedDocument(Object document) {
+            this.document = document;
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Configuration configuration = Configuration.defaultConfiguration();
+
+    /**
+     * Compiled paths, least recently used first. Guarded by itself.
+     */
+    private final Map<String, JsonPath> compiledPaths = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Parsed documents by their source, least recently used first. Guarded by itself.
+     */
+    private final Map<String, ParsedDocument> parsedDocuments = new LinkedHashMap<>(16, 0.75f, true);
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +102,8 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            JsonPath jsonPath = compile(jsonPathExpression);
+            Object transformationResult = jsonPath.read(parse(source), configuration);
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +119,49 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath compile(String jsonPathExpression) {
+        synchronized (compiledPaths) {
+            JsonPath jsonPath = compiledPaths.get(jsonPathExpression);
+            if (jsonPath != null) {
+                return jsonPath;
+            }
+        }
+        JsonPath jsonPath = JsonPath.compile(jsonPathExpression);
+        synchronized (compiledPaths) {
+            compiledPaths.put(jsonPathExpression, jsonPath);
+            removeEldest(compiledPaths, MAX_COMPILED_PATHS);
+        }
+        return jsonPath;
+    }
+
+    /**
+     * Parse the source, or return recently parsed document of equal source. The parsed documents are only read, never
+     * modified, so it is safe to share them.
+     */
+    private Object parse(String source) {
+        long now = System.nanoTime();
+        synchronized (parsedDocuments) {
+            ParsedDocument parsed = parsedDocuments.get(source);
+            if (parsed != null && now - parsed.parsedNanos < PARSED_DOCUMENT_TTL_NANOS) {
+                return parsed.document;
+            }
+        }
+        Object document = configuration.jsonProvider().parse(source);
+        synchronized (parsedDocuments) {
+            parsedDocuments.put(source, new ParsedDocument(document));
+            removeEldest(parsedDocuments, MAX_PARSED_DOCUMENTS);
+        }
+        return document;
+    }
+
+    private static void removeEldest(Map<String, ?> map, int maxSize) {
+        Iterator<String> iterator = map.keySet().iterator();
+        while (map.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
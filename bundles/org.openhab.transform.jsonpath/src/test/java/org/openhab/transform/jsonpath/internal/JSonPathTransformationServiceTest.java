@@ -129,4 +129,27 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSeveralPathsFromSameDocument() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("1", processor.transform("$[0].id", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        // equal but not identical source
+        assertEquals("2", processor.transform("$[1].id", new String(jsonArray)));
+    }
+
+    @Test
+    public void testSamePathFromDifferentDocuments() throws TransformationException {
+        for (int i = 0; i < JSonPathTransformationService.MAX_PARSED_DOCUMENTS * 2; i++) {
+            assertEquals(String.valueOf(i), processor.transform("$.value", "{ \"value\": " + i + " }"));
+        }
+        assertEquals("0", processor.transform("$.value", "{ \"value\": 0 }"));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testInvalidPathAfterValidPathFromSameDocument() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        processor.transform("$[5].name", jsonArray);
+    }
 }
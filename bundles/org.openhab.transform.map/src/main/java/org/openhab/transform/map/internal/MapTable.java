@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.map.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Immutable mapping of a map file, with an index of the reverse mapping. Lookups need no locking, so a table is
+ * replaced as a whole when the file changes.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapTable {
+
+    private final Map<String, String> mapping;
+    private final Map<String, String> reverseMapping;
+
+    /**
+     * Create table from the loaded file
+     *
+     * @param properties the properties of the file
+     */
+    public MapTable(Properties properties) {
+        Map<String, String> mapping = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            mapping.put(key, properties.getProperty(key));
+        }
+
+        Map<String, String> reverseMapping = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (Map.Entry<String, String> entry : mapping.entrySet()) {
+            // the default value cannot be mapped back to an input
+            if (!entry.getKey().isEmpty() && reverseMapping.put(entry.getValue(), entry.getKey()) != null) {
+                ambiguous.add(entry.getValue());
+            }
+        }
+        reverseMapping.keySet().removeAll(ambiguous);
+
+        this.mapping = Collections.unmodifiableMap(mapping);
+        this.reverseMapping = Collections.unmodifiableMap(reverseMapping);
+    }
+
+    /**
+     * Get target of the source, or the default target
+     *
+     * @param source the source
+     * @return target, or null if neither the source nor a default is mapped
+     */
+    public @Nullable String get(String source) {
+        String target = mapping.get(source);
+        return target != null ? target : mapping.get("");
+    }
+
+    /**
+     * Get source of the target. Targets mapped from several sources cannot be mapped back.
+     *
+     * @param target the target
+     * @return the only source mapped to the target, or null
+     */
+    public @Nullable String getSource(String target) {
+        return reverseMapping.get(target);
+    }
+
+    public int size() {
+        return mapping.size();
+    }
+}
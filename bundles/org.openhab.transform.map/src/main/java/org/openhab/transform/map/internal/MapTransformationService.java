@@ -14,8 +14,12 @@ package org.openhab.transform.map.internal;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Properties;
+import java.util.Set;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.AbstractFileTransformationService;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
@@ -27,32 +31,72 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which simply maps strings to other strings
  *
+ * <p>
+ * Map files are loaded into immutable {@link MapTable}s, which also map targets back to their sources, see
+ * {@link #reverseTransform(String, String)}.
+ *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Gaël L'hopital - Make it localizable
  */
 @Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=MAP" })
-public class MapTransformationService extends AbstractFileTransformationService<Properties> {
+public class MapTransformationService extends AbstractFileTransformationService<MapTable> {
 
     private final Logger logger = LoggerFactory.getLogger(MapTransformationService.class);
 
+    /**
+     * Targets of the reverse transformations in progress, compared by identity, see
+     * {@link #reverseTransform(String, String)}
+     */
+    private final Set<String> reverseTargets = Collections
+            .newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+
+    /**
+     * Transforms the input <code>target</code> back to the source it is mapped from. Targets mapped from several
+     * sources, and the default value, cannot be mapped back.
+     *
+     * The transformation runs through {@link #transform(String, String)}, so the map file is localized, loaded and
+     * cached the same way as for the forward direction, and both directions share the cached table.
+     *
+     * @param filename the map file
+     * @param target the target to transform back
+     * @return the source mapped to the target
+     * @throws TransformationException if the target cannot be mapped back, or the file could not be loaded
+     */
+    public @Nullable String reverseTransform(String filename, String target) throws TransformationException {
+        // a copy, so that internalTransform can tell it from any other input by identity
+        String marker = new String(target);
+        String source;
+        reverseTargets.add(marker);
+        try {
+            source = transform(filename, marker);
+        } finally {
+            reverseTargets.remove(marker);
+        }
+        // the base class passes the input through when no result was found
+        if (source == null || source == marker) {
+            throw new TransformationException("Source value not found in map for '" + target + "'");
+        }
+        logger.debug("Reverse transformation resulted in '{}'", source);
+        return source;
+    }
+
     /**
      * <p>
      * Transforms the input <code>source</code> by mapping it to another string. It expects the mappings to be read from
      * a file which is stored under the 'configurations/transform' folder. This file should be in property syntax, i.e.
      * simple lines with "key=value" pairs. To organize the various transformations one might use subfolders.
      *
-     * @param properties the list of properties which contains the key value pairs for the mapping.
+     * @param table the table which contains the key value pairs for the mapping.
      * @param source the input to transform
      */
     @Override
-    protected String internalTransform(Properties properties, String source) throws TransformationException {
-        String target = properties.getProperty(source);
-
+    protected @Nullable String internalTransform(MapTable table, String source) throws TransformationException {
+        if (reverseTargets.contains(source)) {
+            return table.getSource(source);
+        }
+        String target = table.get(source);
         if (target == null) {
-            target = properties.getProperty("");
-            if (target == null) {
-                throw new TransformationException("Target value not found in map for '" + source + "'");
-            }
+            throw new TransformationException("Target value not found in map for '" + source + "'");
         }
 
         logger.debug("Transformation resulted in '{}'", target);
@@ -60,11 +104,11 @@ public class MapTransformationService extends AbstractFileTransformationService<
     }
 
     @Override
-    protected Properties internalLoadTransform(String filename) throws TransformationException {
-        Properties result = new Properties();
+    protected MapTable internalLoadTransform(String filename) throws TransformationException {
+        Properties properties = new Properties();
         try (FileReader reader = new FileReader(filename)) {
-            result.load(reader);
-            return result;
+            properties.load(reader);
+            return new MapTable(properties);
         } catch (IOException e) {
             throw new TransformationException("An error occurred while opening file.", e);
         }
@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.map.internal.profiles;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.profiles.ProfileCallback;
 import org.eclipse.smarthome.core.thing.profiles.ProfileContext;
@@ -24,6 +28,8 @@ import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.Type;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.openhab.transform.map.internal.MapTransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +52,13 @@ public class MapTransformationProfile implements StateProfile {
 
     private static final String FUNCTION_PARAM = "function";
     private static final String SOURCE_FORMAT_PARAM = "sourceFormat";
+    private static final String REVERSE_PARAM = "reverse";
 
     @NonNullByDefault({})
     private final String function;
     @NonNullByDefault({})
     private final String sourceFormat;
+    private final boolean reverse;
 
     public MapTransformationProfile(ProfileCallback callback, ProfileContext context, TransformationService service) {
         this.service = service;
@@ -58,6 +66,8 @@ public class MapTransformationProfile implements StateProfile {
 
         Object paramFunction = context.getConfiguration().get(FUNCTION_PARAM);
         Object paramSource = context.getConfiguration().get(SOURCE_FORMAT_PARAM);
+        Object paramReverse = context.getConfiguration().get(REVERSE_PARAM);
+        reverse = paramReverse != null && Boolean.parseBoolean(paramReverse.toString());
 
         logger.debug("Profile configured with '{}'='{}', '{}'={}", FUNCTION_PARAM, paramFunction, SOURCE_FORMAT_PARAM,
                 paramSource);
@@ -88,9 +98,33 @@ public class MapTransformationProfile implements StateProfile {
 
     @Override
     public void onCommandFromItem(Command command) {
+        if (reverse && function != null && service instanceof MapTransformationService) {
+            try {
+                String result = ((MapTransformationService) service).reverseTransform(function,
+                        command.toFullString());
+                Command resultCommand = result == null ? null : parseCommand(command, result);
+                if (resultCommand != null) {
+                    logger.debug("Transformed command '{}' back into '{}'", command, resultCommand);
+                    callback.handleCommand(resultCommand);
+                    return;
+                }
+            } catch (TransformationException e) {
+                logger.debug("Could not transform command '{}' back with function '{}': {}", command, function,
+                        e.getMessage());
+            }
+        }
         callback.handleCommand(command);
     }
 
+    /**
+     * Parse the result of the reverse transformation as the type of the original command, or as a string if it is no
+     * valid value of that type
+     */
+    private @Nullable Command parseCommand(Command command, String result) {
+        List<Class<? extends Command>> types = Arrays.asList(command.getClass(), StringType.class);
+        return TypeParser.parseCommand(types, result);
+    }
+
     @Override
     public void onCommandFromHandler(Command command) {
         if (function == null || sourceFormat == null) {
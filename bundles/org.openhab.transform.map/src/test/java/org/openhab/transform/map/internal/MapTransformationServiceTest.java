@@ -23,6 +23,7 @@ import java.util.Properties;
 import java.util.concurrent.Callable;
 
 import org.apache.commons.io.FileUtils;
+import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -134,6 +135,45 @@ public class MapTransformationServiceTest {
         Assert.assertEquals("Default Value", transformedResponse);
     }
 
+    @Test
+    public void testReverseTransformByMap() throws Exception {
+        Assert.assertEquals(SOURCE_CLOSED, processor.reverseTransform(EXISTING_FILENAME_DE, "zu"));
+        Assert.assertEquals("OPEN", processor.reverseTransform(DEFAULTED_FILENAME, "open"));
+
+        // the default value is not mapped back
+        try {
+            processor.reverseTransform(DEFAULTED_FILENAME, "Default Value");
+            fail();
+        } catch (TransformationException e) {
+            // That's what we expect.
+        }
+
+        // forward transformation is not affected
+        Assert.assertEquals("zu", processor.transform(EXISTING_FILENAME_DE, SOURCE_CLOSED));
+    }
+
+    @Test
+    public void testReverseTransformByLocalizedMap() throws Exception {
+        // the file of the current language is used, like in the forward transformation
+        Assert.assertEquals("closed", processor.transform(SHOULD_BE_LOCALIZED_FILENAME, SOURCE_CLOSED));
+        Assert.assertEquals(SOURCE_CLOSED, processor.reverseTransform(SHOULD_BE_LOCALIZED_FILENAME, "closed"));
+    }
+
+    @Test
+    public void testReverseMappingOfAmbiguousTarget() {
+        Properties properties = new Properties();
+        properties.setProperty("1", "ON");
+        properties.setProperty("on", "ON");
+        properties.setProperty("0", "OFF");
+        MapTable table = new MapTable(properties);
+
+        Assert.assertEquals("ON", table.get("1"));
+        Assert.assertEquals("ON", table.get("on"));
+        Assert.assertEquals("0", table.getSource("OFF"));
+        Assert.assertNull(table.getSource("ON"));
+        Assert.assertNull(table.get("2"));
+    }
+
     protected void waitForAssert(Callable<Void> assertion, int timeout, int sleepTime) throws Exception {
         int waitingTime = 0;
         while (waitingTime < timeout) {
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Least recently used cache of compiled regular expressions, with hit and miss statistics
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RegExCache {
+
+    /**
+     * How the regular expression is used
+     */
+    public enum Mode {
+        /**
+         * Whole input is matched against the expression, and the first group is extracted
+         */
+        MATCH,
+        /**
+         * Matches of the expression are substituted (<code>s/regex/substitution/</code> form)
+         */
+        SUBSTITUTE
+    }
+
+    private static class Key {
+        private final Mode mode;
+        private final String expression;
+
+        Key(Mode mode, String expression) {
+            this.mode = mode;
+            this.expression = expression;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mode, expression);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return mode == other.mode && expression.equals(other.expression);
+        }
+    }
+
+    /**
+     * Compiled patterns, least recently used first. Guarded by itself.
+     */
+    private final Map<Key, Pattern> patterns = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile int maxSize;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSize maximum number of patterns to keep. Zero disables caching.
+     */
+    public RegExCache(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * Get compiled pattern from the cache, compiling it if necessary
+     *
+     * @param mode how the expression is used
+     * @param expression the regular expression
+     * @param compiler function compiling the expression
+     * @return compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid. Invalid expressions are not cached.
+     */
+    public Pattern get(Mode mode, String expression, Function<String, Pattern> compiler) {
+        Key key = new Key(mode, expression);
+        synchronized (patterns) {
+            Pattern pattern = patterns.get(key);
+            if (pattern != null) {
+                hits++;
+                return pattern;
+            }
+            misses++;
+        }
+        Pattern pattern = compiler.apply(expression);
+        synchronized (patterns) {
+            patterns.put(key, pattern);
+            evict();
+        }
+        return pattern;
+    }
+
+    /**
+     * Set maximum number of patterns to keep, evicting least recently used patterns if necessary
+     *
+     * @param maxSize maximum number of patterns. Zero disables caching.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize should be non-negative");
+        }
+        this.maxSize = maxSize;
+        synchronized (patterns) {
+            evict();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int size() {
+        synchronized (patterns) {
+            return patterns.size();
+        }
+    }
+
+    public long getHits() {
+        synchronized (patterns) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (patterns) {
+            return misses;
+        }
+    }
+
+    public void clear() {
+        synchronized (patterns) {
+            patterns.clear();
+        }
+    }
+
+    private void evict() {
+        Iterator<Key> iterator = patterns.keySet().iterator();
+        while (patterns.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (patterns) {
+            return String.format("RegExCache(size=%d, maxSize=%d, hits=%d, misses=%d)", patterns.size(), maxSize,
+                    hits, misses);
+        }
+    }
+}
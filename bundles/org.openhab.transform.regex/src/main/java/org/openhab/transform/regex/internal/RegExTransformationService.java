@@ -12,6 +12,7 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,7 +20,12 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.openhab.transform.regex.internal.RegExCache.Mode;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,16 +36,60 @@ import org.slf4j.LoggerFactory;
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
+ * <p>
+ * Compiled expressions are cached. The cache size can be configured with <code>cacheSize</code> property of
+ * <code>transform.regex</code> configuration.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=REGEX" })
+@Component(immediate = true, property = { "smarthome.transform=REGEX" }, configurationPid = "transform.regex",
+        configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RegExTransformationService implements TransformationService {
 
+    static final String CONFIG_CACHE_SIZE = "cacheSize";
+    static final int DEFAULT_CACHE_SIZE = 256;
+
     private final Logger logger = LoggerFactory.getLogger(RegExTransformationService.class);
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private final RegExCache cache = new RegExCache(DEFAULT_CACHE_SIZE);
+
+    @Activate
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        Object value = config == null ? null : config.get(CONFIG_CACHE_SIZE);
+        if (value != null) {
+            try {
+                cacheSize = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} '{}', using default {}", CONFIG_CACHE_SIZE, value, DEFAULT_CACHE_SIZE);
+            }
+        }
+        if (cacheSize < 0) {
+            logger.warn("Invalid {} '{}', using default {}", CONFIG_CACHE_SIZE, value, DEFAULT_CACHE_SIZE);
+            cacheSize = DEFAULT_CACHE_SIZE;
+        }
+        cache.setMaxSize(cacheSize);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        logger.debug("Deactivating, compiled expressions: {}", cache);
+        cache.clear();
+    }
+
+    /**
+     * Get the cache of compiled expressions, e.g. for statistics
+     *
+     * @return cache of compiled expressions
+     */
+    public RegExCache getCache() {
+        return cache;
+    }
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -56,17 +106,19 @@ public class RegExTransformationService implements TransformationService {
             String regex = substMatcher.group(1);
             String substitution = substMatcher.group(2);
             String options = substMatcher.group(3);
+            Matcher replaceMatcher = cache.get(Mode.SUBSTITUTE, regex, Pattern::compile).matcher(source.trim());
             if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+                result = replaceMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
+                result = replaceMatcher.replaceFirst(substitution);
             }
             if (result != null) {
                 return result;
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = cache.get(Mode.MATCH, regExpression, expression -> Pattern.compile("^" + expression + "$",
+                Pattern.DOTALL)).matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -14,6 +14,9 @@ package org.openhab.transform.regex.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
@@ -79,4 +82,56 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testCompiledExpressionsAreCached() throws TransformationException {
+        assertEquals("8", processor.transform(".*?<temp_c data=\"(.*?)\".*", source));
+        assertEquals("8", processor.transform(".*?<temp_c data=\"(.*?)\".*", source));
+        assertEquals("SetMode(42)", processor.transform("s/^OP:(.*?),ARG:(.*)$/$1($2)/", "OP:SetMode,ARG:42"));
+        assertEquals("SetMode(43)", processor.transform("s/^OP:(.*?),ARG:(.*)$/$1($2)/", "OP:SetMode,ARG:43"));
+
+        assertEquals(2, processor.getCache().size());
+        assertEquals(2, processor.getCache().getMisses());
+        assertEquals(2, processor.getCache().getHits());
+    }
+
+    @Test
+    public void testSameExpressionInDifferentModes() throws TransformationException {
+        // substitution pattern is not anchored, match pattern is
+        assertEquals("xbx", processor.transform("s/a/x/g", "aba"));
+        assertEquals("", processor.transform("a", "a"));
+        assertEquals(null, processor.transform("a", "aba"));
+
+        assertEquals(2, processor.getCache().size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedExpressionIsEvicted() throws TransformationException {
+        processor.getCache().setMaxSize(2);
+        processor.transform("(a)", "a");
+        processor.transform("(b)", "b");
+        processor.transform("(a)", "a");
+        processor.transform("(c)", "c");
+        assertEquals(2, processor.getCache().size());
+
+        processor.transform("(a)", "a");
+        assertEquals(2, processor.getCache().getHits());
+        // evicted
+        processor.transform("(b)", "b");
+        assertEquals(4, processor.getCache().getMisses());
+    }
+
+    @Test
+    public void testCacheSizeConfiguration() throws TransformationException {
+        processor.modified(cacheSizeConfig("0"));
+        assertEquals("8", processor.transform(".*?<temp_c data=\"(.*?)\".*", source));
+        assertEquals(0, processor.getCache().size());
+
+        processor.modified(cacheSizeConfig("invalid"));
+        assertEquals(RegExTransformationService.DEFAULT_CACHE_SIZE, processor.getCache().getMaxSize());
+    }
+
+    private static Map<String, Object> cacheSizeConfig(String cacheSize) {
+        return Collections.singletonMap(RegExTransformationService.CONFIG_CACHE_SIZE, cacheSize);
+    }
 }
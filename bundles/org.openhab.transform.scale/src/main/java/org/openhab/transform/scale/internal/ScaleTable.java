@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Loaded scale file, indexed for lookups.
+ *
+ * Limits of all ranges split the number line into elementary segments: the limits themselves, and the open intervals
+ * between them. Within a segment, every value is contained by the same ranges, so the label of the first matching
+ * range (in the order of the file) is resolved for each segment when the table is built. Lookup is then a binary
+ * search of the limits, no matter whether the ranges overlap or not.
+ *
+ * @author agent - Initial contribution
+ */
+public class ScaleTable {
+
+    private static final String FORMAT_VALUE = "%value%";
+    private static final String FORMAT_LABEL = "%label%";
+
+    /** Sorted, distinct limits of the ranges */
+    private final BigDecimal[] limits;
+
+    /** Limits as doubles, for looking up doubles without constructing BigDecimals */
+    private final double[] doubleLimits;
+
+    /**
+     * Labels of the segments. Segment <code>2 * i + 1</code> is limit <code>i</code>, and segment <code>2 * i</code> is
+     * the open interval below it. Null if no range matches.
+     */
+    private final String[] labels;
+
+    private final String nonNumeric;
+
+    /** Format split by placeholders. Literals are at even indexes, placeholders at odd indexes. */
+    private final String[] formatParts;
+
+    /**
+     * Build scale table
+     *
+     * @param ranges ranges in the order of the file
+     * @param rangeLabels labels of the ranges
+     * @param nonNumeric label of non numeric values, or null
+     * @param format format of the result
+     */
+    public ScaleTable(List<Range> ranges, List<String> rangeLabels, String nonNumeric, String format) {
+        TreeSet<BigDecimal> limitSet = new TreeSet<>();
+        for (Range range : ranges) {
+            if (range.min != null) {
+                limitSet.add(range.min);
+            }
+            if (range.max != null) {
+                limitSet.add(range.max);
+            }
+        }
+        limits = limitSet.toArray(new BigDecimal[limitSet.size()]);
+        doubleLimits = new double[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            // adding zero turns negative zero into positive zero, which binary search considers different
+            doubleLimits[i] = limits[i].doubleValue() + 0.0;
+        }
+
+        labels = new String[2 * limits.length + 1];
+        for (int segment = 0; segment < labels.length; segment++) {
+            BigDecimal representative = getRepresentative(segment);
+            for (int i = 0; i < ranges.size(); i++) {
+                if (ranges.get(i).contains(representative)) {
+                    labels[segment] = rangeLabels.get(i);
+                    break;
+                }
+            }
+        }
+
+        this.nonNumeric = nonNumeric;
+        this.formatParts = splitFormat(format);
+    }
+
+    /**
+     * Get value contained by the segment
+     */
+    private BigDecimal getRepresentative(int segment) {
+        if (limits.length == 0) {
+            return BigDecimal.ZERO;
+        }
+        int index = segment / 2;
+        if (segment % 2 == 1) {
+            return limits[index];
+        } else if (index == 0) {
+            return limits[0].subtract(BigDecimal.ONE);
+        } else if (index == limits.length) {
+            return limits[index - 1].add(BigDecimal.ONE);
+        } else {
+            return limits[index - 1].add(limits[index]).divide(BigDecimal.valueOf(2));
+        }
+    }
+
+    private static String[] splitFormat(String format) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            String placeholder = format.startsWith(FORMAT_VALUE, i) ? FORMAT_VALUE
+                    : format.startsWith(FORMAT_LABEL, i) ? FORMAT_LABEL : null;
+            if (placeholder == null) {
+                literal.append(format.charAt(i));
+                i++;
+            } else {
+                parts.add(literal.toString());
+                parts.add(placeholder);
+                literal.setLength(0);
+                i += placeholder.length();
+            }
+        }
+        parts.add(literal.toString());
+        return parts.toArray(new String[parts.size()]);
+    }
+
+    /**
+     * Get label of the first range containing the value
+     *
+     * @param value value to look up
+     * @return label, or null if no range contains the value
+     */
+    public String getLabel(BigDecimal value) {
+        int index = Arrays.binarySearch(limits, value);
+        return labels[index >= 0 ? 2 * index + 1 : -2 * (index + 1)];
+    }
+
+    /**
+     * Get label of the first range containing the value
+     *
+     * @param value value to look up. The value should be the closest double of the exact value.
+     * @param exactValue exact value, used when the double is equal to a limit and cannot be compared exactly
+     * @return label, or null if no range contains the value
+     */
+    public String getLabel(double value, String exactValue) {
+        int index = Arrays.binarySearch(doubleLimits, value + 0.0);
+        if (index >= 0 || Double.isNaN(value)) {
+            // double limits are rounded, only limits the value is strictly between are exact
+            return getLabel(new BigDecimal(exactValue));
+        }
+        return labels[-2 * (index + 1)];
+    }
+
+    /**
+     * Get label of non numeric values
+     *
+     * @return label, or null if not defined
+     */
+    public String getNonNumeric() {
+        return nonNumeric;
+    }
+
+    /**
+     * Format the result
+     *
+     * @param value the transformed value
+     * @param label the label of the range
+     * @return formatted result
+     */
+    public String format(String value, String label) {
+        if (formatParts.length == 3 && formatParts[0].isEmpty() && formatParts[2].isEmpty()) {
+            return FORMAT_LABEL.equals(formatParts[1]) ? label : value;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < formatParts.length; i++) {
+            if (i % 2 == 0) {
+                result.append(formatParts[i]);
+            } else {
+                result.append(FORMAT_LABEL.equals(formatParts[i]) ? label : value);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -15,12 +15,12 @@ package org.openhab.transform.scale.internal;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -42,7 +42,7 @@ import org.slf4j.LoggerFactory;
  * @author Markus Rathgeb - drop usage of Guava
  */
 @Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=SCALE" })
-public class ScaleTransformationService extends AbstractFileTransformationService<Map<Range, String>> {
+public class ScaleTransformationService extends AbstractFileTransformationService<ScaleTable> {
 
     private final Logger logger = LoggerFactory.getLogger(ScaleTransformationService.class);
 
@@ -51,12 +51,8 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
 
     private static final String NON_NUMBER = "NaN";
     private static final String FORMAT = "format";
-    private static final String FORMAT_VALUE = "%value%";
     private static final String FORMAT_LABEL = "%label%";
 
-    /** Inaccessible range used to store presentation format ]0..0[ */
-    private static final Range FORMAT_RANGE = Range.range(BigDecimal.ZERO, false, BigDecimal.ZERO, false);
-
     /**
      * The implementation of {@link OrderedProperties} that let access
      * properties in the same order than presented in the source file
@@ -98,18 +94,22 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
      *
      */
     @Override
-    protected String internalTransform(Map<Range, String> data, String source) throws TransformationException {
+    protected String internalTransform(ScaleTable data, String source) throws TransformationException {
+        if (isPlainNumber(source)) {
+            // no need for BigDecimal, unless the value is at a limit
+            return formatResult(data, source, data.getLabel(Double.parseDouble(source), source));
+        }
         try {
             final BigDecimal value = new BigDecimal(source);
 
-            return formatResult(data, source, value);
+            return formatResult(data, source, data.getLabel(value));
         } catch (NumberFormatException e) {
             // Scale can only be used with numeric inputs, so lets try to see if ever its a valid quantity type
             try {
                 final QuantityType<?> quantity = new QuantityType<>(source);
-                return formatResult(data, source, quantity.toBigDecimal());
+                return formatResult(data, source, data.getLabel(quantity.toBigDecimal()));
             } catch (NumberFormatException e2) {
-                String nonNumeric = data.get(null);
+                String nonNumeric = data.getNonNumeric();
                 if (nonNumeric != null) {
                     return nonNumeric;
                 } else {
@@ -120,25 +120,61 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
         }
     }
 
-    private String formatResult(Map<Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        String format = data.get(FORMAT_RANGE);
-        String result = getScaleResult(data, source, value);
-        return format.replaceAll(FORMAT_VALUE, source).replaceAll(FORMAT_LABEL, result);
+    private String formatResult(ScaleTable data, String source, String label) throws TransformationException {
+        if (label == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return data.format(source, label);
     }
 
-    private String getScaleResult(Map<Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey().contains(value)).findFirst()
-                .map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+    /**
+     * Check whether the source is a decimal number in the syntax accepted by {@link BigDecimal#BigDecimal(String)},
+     * using only ASCII characters
+     */
+    static boolean isPlainNumber(String source) {
+        final int length = source.length();
+        int i = 0;
+        if (i < length && (source.charAt(i) == '+' || source.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = source.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (source.charAt(i) == '+' || source.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < length && source.charAt(i) >= '0' && source.charAt(i) <= '9'; i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
     }
 
     @Override
-    protected Map<Range, String> internalLoadTransform(String filename) throws TransformationException {
+    protected ScaleTable internalLoadTransform(String filename) throws TransformationException {
         try (FileReader reader = new FileReader(filename)) {
-            final Map<Range, String> data = new LinkedHashMap<>();
-            data.put(FORMAT_RANGE, FORMAT_LABEL);
+            final List<Range> ranges = new ArrayList<>();
+            final List<String> labels = new ArrayList<>();
+            String nonNumeric = null;
+            String format = FORMAT_LABEL;
             final OrderedProperties properties = new OrderedProperties();
             properties.load(reader);
 
@@ -158,15 +194,16 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                         final BigDecimal highValue = highLimit.isEmpty() ? null : new BigDecimal(highLimit);
                         final Range range = Range.range(lowValue, lowerInclusive, highValue, upperInclusive);
 
-                        data.put(range, value);
+                        ranges.add(range);
+                        labels.add(value);
                     } catch (NumberFormatException ex) {
                         throw new TransformationException("Error parsing bounds: " + lowLimit + ".." + highLimit);
                     }
                 } else {
                     if (NON_NUMBER.equals(entry)) {
-                        data.put(null, value);
+                        nonNumeric = value;
                     } else if (FORMAT.equals(entry)) {
-                        data.put(FORMAT_RANGE, value);
+                        format = value;
                     } else {
                         logger.warn("Scale transform file '{}' does not comply with syntax for entry : '{}', '{}'",
                                 filename, entry, value);
@@ -174,7 +211,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                 }
             }
 
-            return data;
+            return new ScaleTable(ranges, labels, nonNumeric, format);
         } catch (final IOException ex) {
             throw new TransformationException("An error occurred while opening file.", ex);
         }
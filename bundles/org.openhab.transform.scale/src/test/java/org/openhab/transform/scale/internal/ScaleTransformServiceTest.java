@@ -150,4 +150,33 @@ public class ScaleTransformServiceTest {
         Assert.assertEquals("Correcte (992) !", transformedResponse);
     }
 
+    @Test
+    public void testTransformAtLimitOfOverlappingRanges() throws TransformationException {
+        // 20 is contained by both [-40..20] and [20..29], first one wins
+        String existingscale = "scale/humidex_de.scale";
+        Assert.assertEquals("nicht wesentlich", processor.transform(existingscale, "20"));
+        Assert.assertEquals("nicht wesentlich", processor.transform(existingscale, "20.0"));
+        Assert.assertEquals("komfortabel", processor.transform(existingscale, "20.000000000000000001"));
+    }
+
+    @Test
+    public void testTransformNumberSyntax() throws TransformationException {
+        String existingscale = "scale/limits.scale";
+        Assert.assertEquals("middle", processor.transform(existingscale, "1e1"));
+        Assert.assertEquals("low", processor.transform(existingscale, "+9.99"));
+        Assert.assertEquals("low", processor.transform(existingscale, "-0"));
+        Assert.assertEquals("high", processor.transform(existingscale, ".2E3"));
+    }
+
+    @Test
+    public void testIsPlainNumber() {
+        Assert.assertTrue(ScaleTransformationService.isPlainNumber("10"));
+        Assert.assertTrue(ScaleTransformationService.isPlainNumber("-1.5e-3"));
+        Assert.assertTrue(ScaleTransformationService.isPlainNumber("1."));
+        Assert.assertFalse(ScaleTransformationService.isPlainNumber("."));
+        Assert.assertFalse(ScaleTransformationService.isPlainNumber("NaN"));
+        Assert.assertFalse(ScaleTransformationService.isPlainNumber("1e"));
+        Assert.assertFalse(ScaleTransformationService.isPlainNumber("992 ppm"));
+        Assert.assertFalse(ScaleTransformationService.isPlainNumber("1d"));
+    }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple XPath expressions using StAX, without building DOM of the whole document.
+ *
+ * Supported are absolute location paths consisting of child steps with unprefixed element names, optionally ending
+ * with an attribute step, e.g. <code>/weather/current_conditions/temp_c</code> or
+ * <code>/weather/current_conditions/temp_c/@data</code>. The result is the string value of the first matching node in
+ * document order, or empty string if nothing matches, equal to the result of evaluating the expression with
+ * {@link javax.xml.xpath.XPathConstants#STRING}.
+ *
+ * The whole document is always read, so that malformed documents fail like they do with DOM.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class StreamingXPathEvaluator {
+
+    private static final String NAME = "[A-Za-z_][A-Za-z0-9_.\\-]*";
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/" + NAME + ")+(/@" + NAME + ")?");
+
+    private final String[] elementNames;
+    private final @Nullable String attributeName;
+
+    private StreamingXPathEvaluator(String[] elementNames, @Nullable String attributeName) {
+        this.elementNames = elementNames;
+        this.attributeName = attributeName;
+    }
+
+    /**
+     * Create evaluator for the expression
+     *
+     * @param expression XPath expression
+     * @return evaluator, or null if the expression is not simple enough to be evaluated by streaming
+     */
+    public static @Nullable StreamingXPathEvaluator compile(String expression) {
+        String trimmed = expression.trim();
+        if (!SIMPLE_PATH.matcher(trimmed).matches()) {
+            return null;
+        }
+        String[] steps = trimmed.substring(1).split("/");
+        String last = steps[steps.length - 1];
+        if (last.startsWith("@")) {
+            String[] elementNames = new String[steps.length - 1];
+            System.arraycopy(steps, 0, elementNames, 0, elementNames.length);
+            return new StreamingXPathEvaluator(elementNames, last.substring(1));
+        }
+        return new StreamingXPathEvaluator(steps, null);
+    }
+
+    /**
+     * Evaluate the expression
+     *
+     * @param inputFactory namespace aware, non-validating factory creating the XML stream reader
+     * @param source XML document
+     * @return string value of the first matching node, or empty string if nothing matches
+     * @throws XMLStreamException when the document is not well-formed
+     */
+    public String evaluate(XMLInputFactory inputFactory, String source) throws XMLStreamException {
+        @Nullable
+        String attributeName = this.attributeName;
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(source));
+        try {
+            @Nullable
+            String result = null;
+            // depth of the current element, root element being 1
+            int depth = 0;
+            // number of leading steps matched by the ancestors of the current element, and the element itself
+            int matchedSteps = 0;
+            // depth of the matched element whose string value is being collected, or 0
+            int collectingDepth = 0;
+            StringBuilder text = new StringBuilder();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (result == null && collectingDepth == 0 && matchedSteps == depth - 1
+                                && depth <= elementNames.length && isStep(reader, elementNames[depth - 1])) {
+                            matchedSteps = depth;
+                            if (depth == elementNames.length) {
+                                if (attributeName == null) {
+                                    collectingDepth = depth;
+                                } else {
+                                    result = getAttribute(reader, attributeName);
+                                }
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == collectingDepth) {
+                            result = text.toString();
+                            collectingDepth = 0;
+                        }
+                        if (matchedSteps == depth) {
+                            matchedSteps--;
+                        }
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (collectingDepth > 0) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return result == null ? "" : result;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean isStep(XMLStreamReader reader, String elementName) {
+        return elementName.equals(reader.getLocalName()) && isEmpty(reader.getNamespaceURI());
+    }
+
+    private static @Nullable String getAttribute(XMLStreamReader reader, String attributeName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (attributeName.equals(reader.getAttributeLocalName(i)) && isEmpty(reader.getAttributeNamespace(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(@Nullable String namespaceURI) {
+        return namespaceURI == null || namespaceURI.isEmpty();
+    }
+}
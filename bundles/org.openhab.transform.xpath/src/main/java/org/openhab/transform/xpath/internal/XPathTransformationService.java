@@ -13,19 +13,30 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -35,14 +46,83 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Document builders, XPath instances and compiled expressions are not thread-safe, so they are kept per thread and
+ * reused by the subsequent transformations of the same thread. They are kept in instance fields and hold only classes
+ * of the JRE, so they do not keep the bundle class loader alive after the service is deactivated.
+ *
+ * <p>
+ * When <code>streaming</code> property of <code>transform.xpath</code> configuration is enabled, simple absolute
+ * paths are evaluated with {@link StreamingXPathEvaluator}, without building DOM of the document.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=XPATH" })
+@Component(immediate = true, property = { "smarthome.transform=XPATH" }, configurationPid = "transform.xpath",
+        configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class XPathTransformationService implements TransformationService {
 
+    static final String CONFIG_STREAMING = "streaming";
+
+    /**
+     * Maximum number of compiled expressions to keep per thread
+     */
+    static final int MAX_COMPILED_EXPRESSIONS = 64;
+
+    private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+        try {
+            return domFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create document builder", e);
+        }
+    });
+
+    private final ThreadLocal<XPath> xpath = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    /**
+     * Compiled expressions in access order, see {@link #compile(String)}
+     */
+    private final ThreadLocal<Map<String, XPathExpression>> compiledExpressions = ThreadLocal
+            .withInitial(() -> new LinkedHashMap<>(16, 0.75f, true));
+
+    /**
+     * Streaming evaluators in access order, empty for expressions which cannot be streamed, see
+     * {@link #compileStreaming(String)}
+     */
+    private final ThreadLocal<Map<String, Optional<StreamingXPathEvaluator>>> streamingEvaluators = ThreadLocal
+            .withInitial(() -> new LinkedHashMap<>(16, 0.75f, true));
+
+    private final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        return factory;
+    });
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private volatile boolean streaming;
+
+    @Activate
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        Object value = config == null ? null : config.get(CONFIG_STREAMING);
+        streaming = value != null && Boolean.parseBoolean(value.toString().trim());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        // Values kept for other threads are dropped by the JVM once this instance is gone
+        documentBuilder.remove();
+        xpath.remove();
+        compiledExpressions.remove();
+        streamingEvaluators.remove();
+        inputFactory.remove();
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,35 +131,59 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
-
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
-
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
-            inputSource.setEncoding("UTF-8");
+            StreamingXPathEvaluator streamingEvaluator = streaming ? compileStreaming(xpathExpression) : null;
+            String transformationResult;
+            if (streamingEvaluator != null) {
+                transformationResult = streamingEvaluator.evaluate(inputFactory.get(), source);
+            } else {
+                DocumentBuilder builder = documentBuilder.get();
+                builder.reset();
 
-            Document doc = builder.parse(inputSource);
+                InputSource inputSource = new InputSource(new StringReader(source));
+                inputSource.setEncoding("UTF-8");
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+                Document doc = builder.parse(inputSource);
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+                transformationResult = (String) compile(xpathExpression).evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
-            }
         }
     }
 
+    private XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+        Map<String, XPathExpression> compiledExpressions = this.compiledExpressions.get();
+        XPathExpression expression = compiledExpressions.get(xpathExpression);
+        if (expression == null) {
+            expression = xpath.get().compile(xpathExpression);
+            put(compiledExpressions, xpathExpression, expression);
+        }
+        return expression;
+    }
+
+    private @Nullable StreamingXPathEvaluator compileStreaming(String xpathExpression) {
+        Map<String, Optional<StreamingXPathEvaluator>> streamingEvaluators = this.streamingEvaluators.get();
+        Optional<StreamingXPathEvaluator> evaluator = streamingEvaluators.get(xpathExpression);
+        if (evaluator == null) {
+            evaluator = Optional.ofNullable(StreamingXPathEvaluator.compile(xpathExpression));
+            put(streamingEvaluators, xpathExpression, evaluator);
+        }
+        return evaluator.orElse(null);
+    }
+
+    private static <T> void put(Map<String, T> cache, String xpathExpression, T value) {
+        if (cache.size() >= MAX_COMPILED_EXPRESSIONS) {
+            // evict the least recently used expression
+            Iterator<String> iterator = cache.keySet().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+        cache.put(xpathExpression, value);
+    }
+
 }
@@ -12,7 +12,9 @@
  */
 package org.openhab.transform.xpath.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -41,4 +43,73 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformBySameXPathTwice() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testMalformedDocumentAfterValidDocument() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        processor.transform("//current_conditions/temp_c/@data", "<xml_api_reply>");
+    }
+
+    @Test
+    public void testStreamingGivesSameResultsAsDom() throws TransformationException {
+        String[] expressions = new String[] { "/xml_api_reply/weather/current_conditions/temp_c/@data",
+                "/xml_api_reply/weather/forecast_conditions/high/@data", "/xml_api_reply/weather/@module_id",
+                "/xml_api_reply/weather/forecast_conditions/unknown/@data", "/xml_api_reply/weather/unknown",
+                "/weather/current_conditions", "/a/b", "/a/b/@x", "/a/c", "/a/d" };
+        String document = "<?xml version=\"1.0\"?><a><c>x</c><b>first<![CDATA[ <cdata> ]]>&amp;<e>nested</e></b>"
+                + "<b x=\"1\">second</b><ns:d xmlns:ns=\"urn:test\">ns</ns:d></a>";
+
+        XPathTransformationService streamingProcessor = createStreamingProcessor();
+
+        for (String expression : expressions) {
+            for (String xml : new String[] { source, document }) {
+                assertEquals(expression, processor.transform(expression, xml),
+                        streamingProcessor.transform(expression, xml));
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingSupportsOnlySimplePaths() {
+        assertNotNull(StreamingXPathEvaluator.compile("/a/b-c/d_e"));
+        assertNotNull(StreamingXPathEvaluator.compile("/a/b/@c"));
+        assertNull(StreamingXPathEvaluator.compile("//a"));
+        assertNull(StreamingXPathEvaluator.compile("/a/b[1]"));
+        assertNull(StreamingXPathEvaluator.compile("/a/ns:b"));
+        assertNull(StreamingXPathEvaluator.compile("/a/@b/c"));
+        assertNull(StreamingXPathEvaluator.compile("count(/a/b)"));
+    }
+
+    @Test
+    public void testStreamingAfterEviction() throws TransformationException {
+        XPathTransformationService streamingProcessor = createStreamingProcessor();
+        String document = "<a><b>1</b></a>";
+
+        assertEquals("1", streamingProcessor.transform("/a/b", document));
+        assertEquals("1", streamingProcessor.transform("//b", document));
+        for (int i = 0; i < XPathTransformationService.MAX_COMPILED_EXPRESSIONS; i++) {
+            assertEquals("", streamingProcessor.transform("/a/c" + i, document));
+        }
+        assertEquals("1", streamingProcessor.transform("/a/b", document));
+        assertEquals("1", streamingProcessor.transform("//b", document));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testStreamingMalformedDocument() throws TransformationException {
+        XPathTransformationService streamingProcessor = createStreamingProcessor();
+        // matching element is complete, but the document is not
+        streamingProcessor.transform("/a/b", "<a><b>1</b>");
+    }
+
+    private static XPathTransformationService createStreamingProcessor() {
+        XPathTransformationService streamingProcessor = new XPathTransformationService();
+        streamingProcessor.modified(Collections.singletonMap(XPathTransformationService.CONFIG_STREAMING, true));
+        return streamingProcessor;
+    }
 }
@@ -15,8 +15,14 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
@@ -35,14 +41,30 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * Stylesheets are compiled once into {@link Templates}, and kept until {@link XsltStylesheetWatcher} detects that
+ * stylesheets have been modified or deleted.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=XSLT" })
+@Component(immediate = true, service = { TransformationService.class, XsltTransformationService.class },
+        property = { "smarthome.transform=XSLT" })
 public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    /**
+     * Compiled stylesheets by file name. Compilation and removal are guarded by the map, so that a stylesheet
+     * compiled from an outdated file is not put to the cache after the removal.
+     */
+    private final Map<String, Templates> templatesCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong compilations = new AtomicLong();
+    private final AtomicLong transformations = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,32 +82,22 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        long start = System.nanoTime();
+        Templates templates = getTemplates(filename);
 
-        try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error("{}", message, e);
-            throw new TransformationException(message, e);
-        }
-
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, filename);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            Transformer transformer = templates.newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
+        } finally {
+            recordTransformation(System.nanoTime() - start);
         }
 
         logger.debug("transformation resulted in '{}'", out.toString());
@@ -93,4 +105,112 @@ public class XsltTransformationService implements TransformationService {
         return out.toString();
     }
 
+    private Templates getTemplates(String filename) throws TransformationException {
+        Templates templates = templatesCache.get(filename);
+        if (templates != null) {
+            return templates;
+        }
+        synchronized (templatesCache) {
+            templates = templatesCache.get(filename);
+            if (templates != null) {
+                return templates;
+            }
+
+            Source xsl = null;
+
+            try {
+                xsl = new StreamSource(getStylesheetFile(filename));
+            } catch (Exception e) {
+                String message = "opening file '" + filename + "' throws exception";
+
+                logger.error("{}", message, e);
+                throw new TransformationException(message, e);
+            }
+
+            logger.debug("Compiling XSLT stylesheet '{}'", filename);
+            try {
+                templates = TransformerFactory.newInstance().newTemplates(xsl);
+            } catch (Exception e) {
+                logger.error("transformation throws exception", e);
+                throw new TransformationException("transformation throws exception", e);
+            }
+            compilations.incrementAndGet();
+            templatesCache.put(filename, templates);
+            return templates;
+        }
+    }
+
+    private File getStylesheetFile(String filename) {
+        return new File(ConfigConstants.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
+                + File.separator + filename);
+    }
+
+    /**
+     * Remove compiled stylesheets from the cache after the file has been modified or deleted.
+     *
+     * As stylesheets may include or import other stylesheets, all compiled stylesheets are removed when any stylesheet
+     * changes.
+     *
+     * @param path path of the modified file
+     */
+    protected void removeFromCache(Path path) {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString().toLowerCase();
+        boolean stylesheet = name.endsWith(".xsl") || name.endsWith(".xslt") || templatesCache.keySet().stream()
+                .anyMatch(filename -> getStylesheetFile(filename).toPath().toAbsolutePath().normalize().endsWith(path));
+        if (stylesheet) {
+            synchronized (templatesCache) {
+                logger.debug("Stylesheet {} changed, removing {} compiled stylesheets from cache", path,
+                        templatesCache.size());
+                templatesCache.clear();
+            }
+        }
+    }
+
+    private void recordTransformation(long nanos) {
+        transformations.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get number of stylesheet compilations
+     *
+     * @return number of compilations
+     */
+    public long getCompilations() {
+        return compilations.get();
+    }
+
+    /**
+     * Get number of transformations using compiled stylesheets
+     *
+     * @return number of transformations
+     */
+    public long getTransformations() {
+        return transformations.get();
+    }
+
+    /**
+     * Get average latency of the transformations, including stylesheet compilation
+     *
+     * @return average latency in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long count = transformations.get();
+        return count == 0 ? 0 : toMillis(totalNanos.get()) / count;
+    }
+
+    /**
+     * Get maximum latency of the transformations, including stylesheet compilation
+     *
+     * @return maximum latency in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
 }
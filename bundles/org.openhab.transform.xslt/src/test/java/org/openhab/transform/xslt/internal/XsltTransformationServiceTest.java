@@ -14,6 +14,8 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.nio.file.Paths;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,4 +43,31 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testStylesheetIsCompiledOnce() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+
+        assertEquals(1, processor.getCompilations());
+        assertEquals(2, processor.getTransformations());
+    }
+
+    @Test
+    public void testModifiedStylesheetIsCompiledAgain() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+
+        // other files do not affect compiled stylesheets
+        processor.removeFromCache(Paths.get("conf", "transform", "http", "google_weather.map"));
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals(1, processor.getCompilations());
+
+        processor.removeFromCache(Paths.get("conf", "transform", "http", "google_weather.xsl").toAbsolutePath());
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals(2, processor.getCompilations());
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testMissingStylesheet() throws TransformationException {
+        processor.transform("http/missing.xsl", source);
+    }
 }